@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JMHの結果(CSV形式)を保存済みのベースラインと比較し、ベンチマーク毎の増減を出力するクラス
+ * 処理時間(avgt・ss)と1操作あたりの割り当て量(gc.alloc.rate.norm)は小さいほど、スループット(thrpt)は大きいほど良いとみなし、
+ * 閾値を超えて悪化したものに印を付ける
+ *
+ * 引数: 今回の結果のCSV ベースラインのCSV [閾値(%) 既定値10]
+ */
+public class BaselineCompare {
+
+    //比較する2次的な結果(gcプロファイラの1操作あたりの割り当て量)
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        Path current = Paths.get(args[0]);
+        Path baseline = Paths.get(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        if (!Files.exists(baseline)) {
+            System.out.println("baseline not found: " + baseline + " (copy " + current + " there to create one)");
+            return;
+        }
+
+        Map<String, String[]> base = read(baseline);
+        int regressions = 0;
+        System.out.println(String.format("%-90s %14s %14s %9s", "benchmark", "baseline", "current", "change"));
+        for (Map.Entry<String, String[]> e : read(current).entrySet()) {
+            String[] cur = e.getValue();
+            String[] old = base.get(e.getKey());
+            if (old == null) {
+                System.out.println(String.format("%-90s %14s %14.3f %9s  %s", e.getKey(), "-", score(cur), "new", cur[6]));
+                continue;
+            }
+
+            double change = (score(cur) - score(old)) / score(old) * 100;
+            boolean higherIsBetter = cur[1].equals("thrpt") && !e.getKey().contains(ALLOC_NORM);
+            boolean regressed = higherIsBetter ? change < -threshold : change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format("%-90s %14.3f %14.3f %+8.1f%%  %s%s",
+                    e.getKey(), score(old), score(cur), change, cur[6], regressed ? "  REGRESSION" : ""));
+        }
+        System.out.println(regressions + " regression(s) over " + threshold + "%");
+    }
+
+    /**
+     * 結果のCSVを読み込み、ベンチマーク名とパラメータをキーとした対応表を返却する
+     * 主たる結果と1操作あたりの割り当て量のみを対象とする
+     */
+    private static Map<String, String[]> read(Path path) throws IOException {
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        String[] header = parse(lines.get(0));
+        for (String line : lines.subList(1, lines.size())) {
+            String[] row = parse(line);
+            String name = row[0];
+            int colon = name.indexOf(':');
+            if (colon >= 0 && !name.endsWith(ALLOC_NORM)) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(name);
+            for (int i = 7; i < row.length && i < header.length; i++) {
+                if (!row[i].isEmpty()) {
+                    key.append(' ').append(header[i].replace("Param: ", "")).append('=').append(row[i]);
+                }
+            }
+            rows.put(key.toString(), row);
+        }
+        return rows;
+    }
+
+    private static double score(String[] row) {
+        return Double.parseDouble(row[4]);
+    }
+
+    //CSVの1行を項目に分割する(二重引用符で囲まれた項目に対応)
+    private static String[] parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    sb.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        fields.add(sb.toString());
+        return fields.toArray(new String[0]);
+    }
+}
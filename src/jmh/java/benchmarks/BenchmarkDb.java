@@ -0,0 +1,82 @@
+package benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import actions.views.StudentView;
+import constants.AttributeConst;
+import services.StudentService;
+import utils.DBUtil;
+import utils.EncryptUtil;
+
+/**
+ * ベンチマーク用の組み込みDB(H2のインメモリDB)の準備を行うクラス
+ * persistence.xmlの接続先をシステムプロパティで上書きし、マイグレーションを実行したうえで学生データを登録する
+ */
+public class BenchmarkDb {
+
+    //学生データを登録する際の1回の件数
+    private static final int SEED_CHUNK = 1000;
+
+    //登録する学生データのパスワード(ハッシュ化は1回のみ行い全件で共有する)
+    public static final String PASSWORD = "password";
+    public static final String PEPPER = "benchmark";
+
+    private static boolean started;
+
+    /**
+     * 接続先を組み込みDBに切り替え、学生データをn件登録する(同一JVMで2回目以降は何もしない)
+     * @param students 登録する学生の件数
+     */
+    public static synchronized void start(int students) {
+        if (started) {
+            return;
+        }
+        System.setProperty("javax.persistence.jdbc.url", "jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        System.setProperty("javax.persistence.jdbc.driver", "org.h2.Driver");
+        System.setProperty("javax.persistence.jdbc.user", "sa");
+        System.setProperty("javax.persistence.jdbc.password", "");
+        System.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+
+        seed(students);
+        started = true;
+    }
+
+    //組み込みDBを閉じる
+    public static synchronized void stop() {
+        DBUtil.close();
+        started = false;
+    }
+
+    /**
+     * 学生番号(S0000001 形式)を作成する
+     * @param i 連番
+     * @return 学生番号
+     */
+    public static String code(int i) {
+        return String.format("S%07d", i);
+    }
+
+    private static void seed(int students) {
+        String hash = EncryptUtil.hashPassword(PASSWORD, PEPPER);
+        LocalDateTime now = LocalDateTime.now();
+
+        StudentService service = new StudentService();
+        try {
+            for (int start = 1; start <= students; start += SEED_CHUNK) {
+                List<StudentView> chunk = new ArrayList<>();
+                for (int i = start; i < start + SEED_CHUNK && i <= students; i++) {
+                    chunk.add(new StudentView(null, code(i), "student " + i, hash,
+                            AttributeConst.ROLE_GENERAL.getIntegerValue(), now, now,
+                            AttributeConst.DEL_FLAG_FALSE.getIntegerValue()));
+                }
+                service.createAll(chunk);
+            }
+            service.reconcileCounters();
+            service.rebuildCodeIndex();
+        } finally {
+            service.close();
+        }
+    }
+}
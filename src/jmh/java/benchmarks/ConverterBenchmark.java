@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import actions.views.StudentConverter;
+import actions.views.StudentView;
+import constants.JpaConst;
+import models.Student;
+
+/**
+ * DTOモデルからViewモデルへの変換(StudentConverter.toView/toViewList)のベンチマーク
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+    //変換する件数(1ページ分・全件出力相当)
+    @Param({ "15", "1000" })
+    public int size;
+
+    private Student student;
+    private List<Student> students;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        students = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            students.add(new Student(i, BenchmarkDb.code(i), "student " + i, "hash",
+                    i % 10 == 0 ? JpaConst.ROLE_ADMIN : JpaConst.ROLE_GENERAL, now, now, JpaConst.STU_DEL_FALSE, 0));
+        }
+        student = students.get(0);
+    }
+
+    @Benchmark
+    public StudentView toView() {
+        return StudentConverter.toView(student);
+    }
+
+    @Benchmark
+    public List<StudentView> toViewList() {
+        return StudentConverter.toViewList(students);
+    }
+}
@@ -0,0 +1,100 @@
+package benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import actions.ActionBase;
+import actions.ActionRegistry;
+import actions.StudentAction;
+import constants.ForwardConst;
+
+/**
+ * FrontControllerのActionクラスの作成(getAction)と、ActionBase.invokeによるcommandの呼び出しのベンチマーク
+ * commandの処理内容(DBアクセス・JSP)を含めないよう、process()でDBに接続しないMetricsActionを使用し、
+ * 未ログインで管理者用commandを呼び出しエラー画面へ遷移する経路と、存在しないcommandの経路を計測する(forwardは何もしない代替実装)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private final ActionRegistry registry = ActionRegistry.getInstance();
+
+    private ServletContext context;
+    private HttpServletResponse response;
+
+    //action=Metrics&command=index (未ログインのためエラー画面へ遷移する)
+    private HttpServletRequest commandRequest;
+
+    //action=Metrics&command=xxx (存在しないcommand)
+    private HttpServletRequest unknownCommandRequest;
+
+    @Setup
+    public void setup() {
+        context = ServletStubs.context();
+        response = ServletStubs.response();
+        commandRequest = ServletStubs.request(params(ForwardConst.ACT_METRICS, "index"));
+        unknownCommandRequest = ServletStubs.request(params(ForwardConst.ACT_METRICS, "xxx"));
+    }
+
+    @Benchmark
+    public ActionBase getAction() {
+        return registry.newAction("Student");
+    }
+
+    @Benchmark
+    public ActionBase getActionUnknown() {
+        return registry.newAction("xxx");
+    }
+
+    @Benchmark
+    public Object getCommand() {
+        return registry.getCommand(StudentAction.class, "index");
+    }
+
+    @Benchmark
+    public ActionBase dispatchCommand() throws Exception {
+        return dispatch(commandRequest);
+    }
+
+    @Benchmark
+    public ActionBase dispatchUnknownCommand() throws Exception {
+        return dispatch(unknownCommandRequest);
+    }
+
+    /**
+     * FrontController.doGetと同じ手順でActionクラスを作成し、処理を呼び出す
+     */
+    private ActionBase dispatch(HttpServletRequest request) throws Exception {
+        ActionBase action = registry.newAction(request.getParameter(ForwardConst.ACT.getValue()));
+        action.init(context, request, response);
+        action.process();
+        return action;
+    }
+
+    private static Map<String, String> params(ForwardConst action, String command) {
+        Map<String, String> params = new HashMap<>();
+        params.put(ForwardConst.ACT.getValue(), action.getValue());
+        params.put(ForwardConst.CMD.getValue(), command);
+        return params;
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utils.EncryptUtil;
+
+/**
+ * パスワードのハッシュ化(EncryptUtil)のベンチマーク
+ * 移行前の形式(SHA-256)と、現在の形式(PBKDF2)のハッシュ化・照合を計測する
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncryptBenchmark {
+
+    private String legacyHash;
+    private String pbkdf2Hash;
+
+    @Setup
+    public void setup() {
+        legacyHash = EncryptUtil.getPasswordEncrypt(BenchmarkDb.PASSWORD, BenchmarkDb.PEPPER);
+        pbkdf2Hash = EncryptUtil.hashPassword(BenchmarkDb.PASSWORD, BenchmarkDb.PEPPER);
+    }
+
+    @Benchmark
+    public String getPasswordEncrypt() {
+        return EncryptUtil.getPasswordEncrypt(BenchmarkDb.PASSWORD, BenchmarkDb.PEPPER);
+    }
+
+    @Benchmark
+    public boolean verifyLegacy() {
+        return EncryptUtil.verifyPassword(BenchmarkDb.PASSWORD, BenchmarkDb.PEPPER, legacyHash);
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return EncryptUtil.hashPassword(BenchmarkDb.PASSWORD, BenchmarkDb.PEPPER);
+    }
+
+    @Benchmark
+    public boolean verifyPbkdf2() {
+        return EncryptUtil.verifyPassword(BenchmarkDb.PASSWORD, BenchmarkDb.PEPPER, pbkdf2Hash);
+    }
+}
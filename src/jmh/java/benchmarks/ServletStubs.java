@@ -0,0 +1,187 @@
+package benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+/**
+ * ベンチマークで使用するサーブレットAPIの最小限の代替実装
+ * パラメータ・属性のみを保持し、それ以外のメソッドは何もせず既定値(null・0・false)を返却する
+ */
+public class ServletStubs {
+
+    //何もしないRequestDispatcher(forward・includeの呼び出し先)
+    private static final RequestDispatcher DISPATCHER = stub(RequestDispatcher.class, new HashMap<>());
+
+    /**
+     * リクエストを作成する
+     * @param params リクエストパラメータ
+     * @return リクエスト
+     */
+    public static HttpServletRequest request(Map<String, String> params) {
+        return request(params, "GET", stub(HttpSession.class, new HashMap<>()));
+    }
+
+    /**
+     * メソッドとセッションを指定してリクエストを作成する
+     * @param params リクエストパラメータ
+     * @param httpMethod HTTPメソッド
+     * @param session セッション
+     * @return リクエスト
+     */
+    public static HttpServletRequest request(Map<String, String> params, String httpMethod, HttpSession session) {
+        Map<String, Object> attributes = new HashMap<>();
+        return (HttpServletRequest) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getParameter":
+                        return params.get(args[0]);
+                    case "getMethod":
+                        return httpMethod;
+                    case "getSession":
+                        return session;
+                    case "getRequestDispatcher":
+                        return DISPATCHER;
+                    case "getAttribute":
+                        return attributes.get(args[0]);
+                    case "setAttribute":
+                        attributes.put((String) args[0], args[1]);
+                        return null;
+                    case "removeAttribute":
+                        attributes.remove(args[0]);
+                        return null;
+                    default:
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    //レスポンスを作成する
+    public static HttpServletResponse response() {
+        return stub(HttpServletResponse.class, new HashMap<>());
+    }
+
+    /**
+     * 設定したヘッダを保持するレスポンスを作成する
+     * @param headers 設定されたヘッダの格納先
+     * @return レスポンス
+     */
+    public static HttpServletResponse response(Map<String, String> headers) {
+        return (HttpServletResponse) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { HttpServletResponse.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "setHeader":
+                    case "addHeader":
+                    case "setIntHeader":
+                    case "addIntHeader":
+                        headers.put((String) args[0], String.valueOf(args[1]));
+                        return null;
+                    case "getHeader":
+                        return headers.get(args[0]);
+                    case "containsHeader":
+                        return headers.containsKey(args[0]);
+                    default:
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * セッションIDを指定してセッションを作成する(CSRF対策用tokenの検証に使用する)
+     * @param id セッションID
+     * @return セッション
+     */
+    public static HttpSession session(String id) {
+        Map<Object, Object> attributes = new HashMap<>();
+        return (HttpSession) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { HttpSession.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getId":
+                        return id;
+                    case "getAttribute":
+                        return attributes.get(args[0]);
+                    case "setAttribute":
+                        attributes.put(args[0], args[1]);
+                        return null;
+                    case "removeAttribute":
+                        attributes.remove(args[0]);
+                        return null;
+                    default:
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    //サーブレットコンテキストを作成する
+    public static ServletContext context() {
+        return stub(ServletContext.class, new HashMap<>());
+    }
+
+    /**
+     * サーブレットの設定を作成する(サーブレットのinitに渡す)
+     * @param name サーブレット名
+     * @param context サーブレットコンテキスト
+     * @return サーブレットの設定
+     */
+    public static ServletConfig config(String name, ServletContext context) {
+        return (ServletConfig) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { ServletConfig.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getServletName":
+                        return name;
+                    case "getServletContext":
+                        return context;
+                    default:
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * 属性(get/setAttribute)のみを保持する代替実装を作成する
+     */
+    private static <T> T stub(Class<T> type, Map<Object, Object> attributes) {
+        return type.cast(Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getAttribute":
+                        return attributes.get(args[0]);
+                    case "setAttribute":
+                        attributes.put(args[0], args[1]);
+                        return null;
+                    default:
+                        return defaultValue(method.getReturnType());
+                    }
+                }));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
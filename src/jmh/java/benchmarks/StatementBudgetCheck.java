@@ -0,0 +1,127 @@
+package benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import actions.views.StudentView;
+import constants.AttributeConst;
+import constants.ForwardConst;
+import constants.MetricsConst;
+import constants.PropertyConst;
+import controllers.FrontController;
+import services.StudentService;
+import utils.PasswordHashExecutor;
+
+/**
+ * 主要な画面の処理で実行するSQLの件数が上限以下であることを検証するクラス
+ * 組み込みDBとサーブレットAPIの代替実装(ServletStubs)を使用し、FrontControllerを同一プロセスで呼び出して
+ * レスポンスヘッダ(X-Statement-Count)に出力された件数を検証する(JSPは描画しない)
+ * いずれかが上限を超えた場合は実行したSQLの件数を出力し、終了コード1で終了する
+ *
+ * 実行: mvn -P jmh verify (ベンチマークの前に実行する) または
+ *       mvn -P jmh test-compile exec:exec@check-statements
+ */
+public class StatementBudgetCheck {
+
+    //登録する学生の件数
+    private static final int STUDENTS = 100;
+
+    //一覧画面(Student/index)で実行するSQLの件数の上限(検証子の取得・一覧の取得)
+    private static final int STUDENT_INDEX_MAX = 2;
+
+    //ログイン処理(Auth/login)で実行するSQLの件数の上限(学生の取得)
+    private static final int AUTH_LOGIN_MAX = 1;
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkDb.start(STUDENTS);
+        try {
+            ServletContext context = ServletStubs.context();
+            context.setAttribute(PropertyConst.PEPPER.getValue(), BenchmarkDb.PEPPER);
+            context.setAttribute(PropertyConst.STATEMENT_HEADER.getValue(), "true");
+
+            FrontController controller = new FrontController();
+            controller.init(ServletStubs.config("FrontController", context));
+
+            //ログイン処理(成功・パスワードの誤り)
+            HttpSession session = ServletStubs.session("check-session");
+            check(controller, "Auth/login (success)", AUTH_LOGIN_MAX, "POST", session,
+                    login(BenchmarkDb.code(1), BenchmarkDb.PASSWORD, session.getId()));
+            check(controller, "Auth/login (invalid password)", AUTH_LOGIN_MAX, "POST", session,
+                    login(BenchmarkDb.code(2), "invalid", session.getId()));
+
+            //一覧画面(キャッシュがない状態・ある状態)
+            HttpSession admin = ServletStubs.session("check-admin");
+            admin.setAttribute(AttributeConst.LOGIN_STU.getValue(), adminStudent());
+            check(controller, "Student/index (cold)", STUDENT_INDEX_MAX, "GET", admin,
+                    params(ForwardConst.ACT_STU, ForwardConst.CMD_INDEX));
+            check(controller, "Student/index (warm)", STUDENT_INDEX_MAX, "GET", admin,
+                    params(ForwardConst.ACT_STU, ForwardConst.CMD_INDEX));
+
+            controller.destroy();
+        } finally {
+            BenchmarkDb.stop();
+            PasswordHashExecutor.shutdown();
+        }
+
+        if (failures > 0) {
+            System.out.println(failures + " check(s) exceeded the statement budget");
+            System.exit(1);
+        }
+        System.out.println("all checks passed");
+    }
+
+    /**
+     * FrontControllerを呼び出し、レスポンスヘッダのSQLの件数が上限以下かどうかを検証する
+     */
+    private static void check(FrontController controller, String label, int max, String method,
+            HttpSession session, Map<String, String> params) throws Exception {
+        HttpServletRequest request = ServletStubs.request(params, method, session);
+        Map<String, String> headers = new HashMap<>();
+        HttpServletResponse response = ServletStubs.response(headers);
+
+        controller.service(request, response);
+
+        String count = headers.get(MetricsConst.STATEMENT_COUNT_HEADER);
+        boolean ok = count != null && Integer.parseInt(count) <= max;
+        if (!ok) {
+            failures++;
+        }
+        System.out.println(String.format("%-32s statements=%-4s max=%d %s", label, count, max, ok ? "OK" : "FAILED"));
+    }
+
+    //ログイン処理のパラメータ
+    private static Map<String, String> login(String code, String password, String token) {
+        Map<String, String> params = params(ForwardConst.ACT_AUTH, ForwardConst.CMD_LOGIN);
+        params.put(AttributeConst.STU_CODE.getValue(), code);
+        params.put(AttributeConst.STU_PASS.getValue(), password);
+        params.put(AttributeConst.TOKEN.getValue(), token);
+        return params;
+    }
+
+    private static Map<String, String> params(ForwardConst action, ForwardConst command) {
+        Map<String, String> params = new HashMap<>();
+        params.put(ForwardConst.ACT.getValue(), action.getValue());
+        params.put(ForwardConst.CMD.getValue(), command.getValue());
+        return params;
+    }
+
+    //ログイン中の管理者(登録済みの学生を管理者として扱う 検証の件数に含めないよう事前に取得する)
+    private static StudentView adminStudent() {
+        StudentService service = new StudentService();
+        try {
+            StudentView sv = service.findOne(BenchmarkDb.code(1), BenchmarkDb.PASSWORD, BenchmarkDb.PEPPER);
+            sv.setAdminFlag(AttributeConst.ROLE_ADMIN.getIntegerValue());
+            sv.setPassword(null);
+            return sv;
+        } finally {
+            service.close();
+        }
+    }
+}
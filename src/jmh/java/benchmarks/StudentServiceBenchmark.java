@@ -0,0 +1,91 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import actions.views.ListValidator;
+import actions.views.StudentListView;
+import actions.views.StudentView;
+import services.StudentService;
+
+/**
+ * 組み込みDB(H2)に対するStudentServiceの問い合わせのベンチマーク
+ * 2次キャッシュ・クエリキャッシュは本番と同じ設定のため、同じ条件の繰り返しはキャッシュから応答する
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentServiceBenchmark {
+
+    //登録する学生の件数
+    @Param({ "10000" })
+    public int students;
+
+    private StudentService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkDb.start(students);
+        service = new StudentService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.close();
+        BenchmarkDb.stop();
+    }
+
+    @Benchmark
+    public List<StudentListView> getPerPageFirst() {
+        return service.getPerPage(1);
+    }
+
+    @Benchmark
+    public List<StudentListView> getPerPageRandom() {
+        int pages = students / 15;
+        return service.getPerPage(ThreadLocalRandom.current().nextInt(pages) + 1);
+    }
+
+    @Benchmark
+    public long countAll() {
+        return service.countAll();
+    }
+
+    @Benchmark
+    public ListValidator getListValidator() {
+        return service.getListValidator();
+    }
+
+    @Benchmark
+    public StudentView findOneById() {
+        return service.findOne(ThreadLocalRandom.current().nextInt(students) + 1);
+    }
+
+    @Benchmark
+    public long countByCodeRegistered() {
+        return service.countByCode(BenchmarkDb.code(ThreadLocalRandom.current().nextInt(students) + 1));
+    }
+
+    @Benchmark
+    public long countByCodeUnregistered() {
+        return service.countByCode("X" + ThreadLocalRandom.current().nextInt());
+    }
+}
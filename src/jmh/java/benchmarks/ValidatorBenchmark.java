@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import actions.views.StudentView;
+import constants.AttributeConst;
+import models.validators.StudentValidator;
+import services.StudentService;
+
+/**
+ * 学生の入力内容のバリデーション(StudentValidator.validate)のベンチマーク
+ * 番号の重複チェックは、ブルームフィルタで除外できる未登録の番号と、DBに問い合わせる登録済みの番号の両方を計測する
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    private static final int STUDENTS = 1000;
+
+    private StudentService service;
+    private StudentView newStudent;
+    private StudentView duplicateStudent;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkDb.start(STUDENTS);
+        service = new StudentService();
+        newStudent = view("N0000001");
+        duplicateStudent = view(BenchmarkDb.code(STUDENTS / 2));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.close();
+        BenchmarkDb.stop();
+    }
+
+    @Benchmark
+    public List<String> validateWithoutDuplicateCheck() {
+        return StudentValidator.validate(service, newStudent, false, true);
+    }
+
+    @Benchmark
+    public List<String> validateNewCode() {
+        return StudentValidator.validate(service, newStudent, true, true);
+    }
+
+    @Benchmark
+    public List<String> validateDuplicateCode() {
+        return StudentValidator.validate(service, duplicateStudent, true, true);
+    }
+
+    private static StudentView view(String code) {
+        return new StudentView(null, code, "name", BenchmarkDb.PASSWORD,
+                AttributeConst.ROLE_GENERAL.getIntegerValue(), null, null,
+                AttributeConst.DEL_FLAG_FALSE.getIntegerValue());
+    }
+}
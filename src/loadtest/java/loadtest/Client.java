@@ -0,0 +1,139 @@
+package loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 仮想クライアント(ブラウザ1つ分)
+ * Cookie(セッションID)と接続元アドレスを保持し、リダイレクトは追跡せずステータスコードをそのまま返却する
+ */
+public class Client {
+
+    //画面に埋め込まれたCSRF対策用token
+    private static final Pattern TOKEN = Pattern.compile("name=\"_token\" value=\"([^\"]*)\"");
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final String address;
+    private final Map<String, String> cookies = new LinkedHashMap<>();
+
+    //直近に取得した画面のCSRF対策用token
+    private String token;
+
+    //直近に取得した画面
+    private String body;
+
+    /**
+     * コンストラクタ
+     * @param http 共有するHTTPクライアント
+     * @param baseUrl アプリケーションのURL(例: http://127.0.0.1:8080/)
+     * @param block 接続元アドレスの区分(10.block.x.x シナリオ毎に分け、あるシナリオの試行回数の制限が他に影響しないようにする)
+     * @param index クライアントの連番(接続元アドレスの作成に使用する)
+     */
+    public Client(HttpClient http, String baseUrl, int block, int index) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.address = "10." + (block & 0xff) + "." + ((index >> 8) & 0xff) + "." + (index & 0xff);
+    }
+
+    /**
+     * GETリクエストを送信する
+     * @param query クエリ文字列(例: action=Student&command=index)
+     * @return ステータスコード
+     */
+    public int get(String query) throws IOException, InterruptedException {
+        return send(request(query).GET().build());
+    }
+
+    /**
+     * フォームの内容をPOSTで送信する 直近に取得したCSRF対策用tokenを付加する
+     * @param query クエリ文字列
+     * @param form フォームの項目名と値(交互に指定する)
+     * @return ステータスコード
+     */
+    public int post(String query, String... form) throws IOException, InterruptedException {
+        StringBuilder sb = new StringBuilder("_token=").append(encode(token));
+        for (int i = 0; i + 1 < form.length; i += 2) {
+            sb.append('&').append(encode(form[i])).append('=').append(encode(form[i + 1]));
+        }
+        return send(request(query)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(sb.toString()))
+                .build());
+    }
+
+    /**
+     * ログイン画面を表示してログインする
+     * @param code 学生番号
+     * @param password パスワード
+     * @return ステータスコード(成功した場合302)
+     */
+    public int login(String code, String password) throws IOException, InterruptedException {
+        get("action=Auth&command=showLogin");
+        return post("action=Auth&command=login", "code", code, "password", password);
+    }
+
+    //Cookieを破棄する(新しいブラウザとしてアクセスする)
+    public void clearCookies() {
+        cookies.clear();
+        token = null;
+    }
+
+    //直近に取得した画面
+    public String getBody() {
+        return body;
+    }
+
+    private HttpRequest.Builder request(String query) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + "?" + query))
+                .timeout(TIMEOUT)
+                .header("X-Forwarded-For", address);
+        if (!cookies.isEmpty()) {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, String> c : cookies.entrySet()) {
+                if (sb.length() > 0) {
+                    sb.append("; ");
+                }
+                sb.append(c.getKey()).append('=').append(c.getValue());
+            }
+            b.header("Cookie", sb.toString());
+        }
+        return b;
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+
+        //Cookieの名前と値のみを保持する(属性は使用しない)
+        for (String header : response.headers().allValues("Set-Cookie")) {
+            int eq = header.indexOf('=');
+            int semi = header.indexOf(';');
+            if (eq > 0) {
+                cookies.put(header.substring(0, eq).trim(), header.substring(eq + 1, semi < 0 ? header.length() : semi));
+            }
+        }
+
+        body = response.body();
+        Matcher m = TOKEN.matcher(body);
+        if (m.find()) {
+            token = m.group(1);
+        }
+        return response.statusCode();
+    }
+
+    private static String encode(String value) {
+        return value == null ? "" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,81 @@
+package loadtest;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * 組み込みTomcatで起動するWebアプリケーションの親クラスローダー
+ * 負荷試験側のクラスパスのうち、コンテナ(Tomcat・Jasper・サーブレットAPI)と組み込みDB(H2)のみを公開する
+ * 負荷試験側のHibernate等をWebアプリケーションから参照できないようにし、WARのWEB-INF/libのものだけを使用させる
+ */
+public class ContainerClassLoader extends ClassLoader {
+
+    //公開するjarのファイル名の接頭辞
+    private static final String[] CONTAINER_JARS = {
+            "tomcat-", "ecj-", "javax.servlet-api-", "h2-" };
+
+    private final ClassLoader app;
+
+    public ContainerClassLoader(ClassLoader app) {
+        super(ClassLoader.getPlatformClassLoader());
+        this.app = app;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        try {
+            return getParent().loadClass(name);
+        } catch (ClassNotFoundException e) {
+            URL url = app.getResource(name.replace('.', '/') + ".class");
+            if (url != null && isContainer(url)) {
+                return app.loadClass(name);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public URL getResource(String name) {
+        URL url = getParent().getResource(name);
+        if (url != null) {
+            return url;
+        }
+        try {
+            Enumeration<URL> urls = getResources(name);
+            return urls.hasMoreElements() ? urls.nextElement() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+        List<URL> urls = new ArrayList<>(Collections.list(getParent().getResources(name)));
+        for (URL url : Collections.list(app.getResources(name))) {
+            if (isContainer(url)) {
+                urls.add(url);
+            }
+        }
+        return Collections.enumeration(urls);
+    }
+
+    //コンテナまたは組み込みDBのjarに含まれるかどうか
+    private static boolean isContainer(URL url) {
+        String path = url.toString();
+        int bang = path.indexOf("!/");
+        if (!path.startsWith("jar:") || bang < 0) {
+            return false;
+        }
+        String jar = path.substring(path.lastIndexOf('/', bang) + 1, bang);
+        for (String prefix : CONTAINER_JARS) {
+            if (jar.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
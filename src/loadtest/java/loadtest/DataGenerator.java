@@ -0,0 +1,83 @@
+package loadtest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import actions.views.StudentView;
+import constants.AttributeConst;
+import services.StudentService;
+import utils.DBUtil;
+import utils.EncryptUtil;
+
+/**
+ * 負荷試験用の学生データを組み込みDBに登録するクラス
+ * パスワードのハッシュ化(PBKDF2)は1回のみ行い全件で共有し、JDBCバッチ(StudentService.createAll)でまとめて登録する
+ * 学生のidは1から連番、番号はS0000001形式とし、最後に管理者(番号admin1～)を登録する
+ * (ログイン試行回数の制限は学生番号毎のため、仮想クライアント毎に別の管理者でログインする)
+ */
+public class DataGenerator {
+
+    //1トランザクションで登録する件数
+    private static final int CHUNK = 5000;
+
+    //全学生共通のパスワード
+    public static final String PASSWORD = "password";
+
+    /**
+     * 管理者の番号を作成する
+     * @param i 連番(1～)
+     * @return 管理者の番号
+     */
+    public static String adminCode(int i) {
+        return "admin" + i;
+    }
+
+    /**
+     * 学生番号を作成する
+     * @param i 連番(id)
+     * @return 学生番号
+     */
+    public static String code(int i) {
+        return String.format("S%07d", i);
+    }
+
+    /**
+     * 学生データと管理者を登録する
+     * @param students 学生の件数
+     * @param admins 管理者の件数
+     * @param pepper ペッパー文字列(アプリケーションと同じ値 未設定の場合null)
+     */
+    public static void seed(int students, int admins, String pepper) {
+        long start = System.nanoTime();
+        String hash = EncryptUtil.hashPassword(PASSWORD, pepper);
+        LocalDateTime now = LocalDateTime.now();
+        int general = AttributeConst.ROLE_GENERAL.getIntegerValue();
+        int active = AttributeConst.DEL_FLAG_FALSE.getIntegerValue();
+
+        StudentService service = new StudentService();
+        try {
+            for (int from = 1; from <= students; from += CHUNK) {
+                List<StudentView> chunk = new ArrayList<>(CHUNK);
+                for (int i = from; i < from + CHUNK && i <= students; i++) {
+                    chunk.add(new StudentView(null, code(i), "student " + i, hash, general, now, now, active));
+                }
+                service.createAll(chunk);
+            }
+
+            List<StudentView> adminList = new ArrayList<>();
+            for (int i = 1; i <= admins; i++) {
+                adminList.add(new StudentView(null, adminCode(i), "admin " + i, hash,
+                        AttributeConst.ROLE_ADMIN.getIntegerValue(), now, now, active));
+            }
+            service.createAll(adminList);
+        } finally {
+            service.close();
+        }
+
+        //アプリケーションは別のクラスローダーで同じDBに接続するため、こちらの接続は閉じる
+        DBUtil.close();
+
+        System.out.println(String.format("seeded %d students in %.1f s", students, (System.nanoTime() - start) / 1e9));
+    }
+}
@@ -0,0 +1,51 @@
+package loadtest;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.valves.RemoteIpValve;
+import org.apache.tomcat.util.scan.StandardJarScanner;
+
+/**
+ * 展開済みのWARを組み込みTomcatで起動するクラス
+ * 仮想クライアント毎に異なる接続元アドレス(X-Forwarded-For)を使用できるよう、RemoteIpValveを設定する
+ * (ログイン試行回数の制限が全クライアントで共有されないようにするため)
+ */
+public class EmbeddedServer {
+
+    private final Tomcat tomcat = new Tomcat();
+
+    /**
+     * 起動する
+     * @param war 展開済みのWARのディレクトリ
+     * @param port 待ち受けるポート(0の場合は空いているポート)
+     * @param threads リクエストを処理するスレッド数の上限
+     * @throws Exception
+     */
+    public void start(File war, int port, int threads) throws Exception {
+        tomcat.setBaseDir(Files.createTempDirectory("loadtest-tomcat").toString());
+        tomcat.setPort(port);
+        tomcat.getConnector().setProperty("maxThreads", String.valueOf(threads));
+        tomcat.getConnector().setProperty("maxKeepAliveRequests", "-1");
+        tomcat.getEngine().getPipeline().addValve(new RemoteIpValve());
+        Context context = tomcat.addWebapp("", war.getAbsolutePath());
+        //負荷試験側のクラスパス(組み込みTomcat・H2等)はWARの一部ではないため、アノテーション等の走査対象から除く
+        ((StandardJarScanner) context.getJarScanner()).setScanClassPath(false);
+        context.setParentClassLoader(new ContainerClassLoader(EmbeddedServer.class.getClassLoader()));
+        tomcat.start();
+    }
+
+    //待ち受けているポート
+    public int getPort() {
+        return tomcat.getConnector().getLocalPort();
+    }
+
+    //停止する
+    public void stop() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
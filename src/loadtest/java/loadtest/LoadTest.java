@@ -0,0 +1,241 @@
+package loadtest;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import utils.LatencyHistogram;
+
+/**
+ * 負荷試験の実行クラス
+ * 組み込みDB(H2のインメモリDB)に学生データを登録し、展開済みのWARを組み込みTomcatで起動したうえで、
+ * シナリオ毎に目標のレートでリクエストを送信し、スループットと処理時間の百分位数を出力する
+ *
+ * リクエストは開始予定時刻(目標のレートから決まる時刻)に送信し、処理時間は予定時刻から応答までとする
+ * 仮想クライアントが全て処理中で送信が遅れた場合も、その待ち時間を処理時間に含める(coordinated omissionの補正)
+ * ログイン試行回数の制限による429はアプリケーションの障害(failures)と分けて出力する
+ *
+ * 実行: mvn -P loadtest verify -Dloadtest.args="--students=100000 --rate=200 --rates=login:20 --clients=64"
+ */
+public class LoadTest {
+
+    //ログイン試行回数の制限により拒否された場合のステータスコード
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    /**
+     * シナリオ1つ分の計測値
+     */
+    static class Result {
+        final Scenario scenario;
+        //開始予定時刻から応答までの時間
+        final LatencyHistogram latency = new LatencyHistogram();
+        //送信から応答までの時間
+        final LatencyHistogram service = new LatencyHistogram();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        //期待したステータスコード以外の応答(429を除く)
+        final LongAdder failures = new LongAdder();
+        //ログイン試行回数の制限により拒否された応答(429) アプリケーションの障害とは分けて数える
+        final LongAdder throttled = new LongAdder();
+        final LongAdder exceptions = new LongAdder();
+        long elapsedNanos;
+
+        Result(Scenario scenario) {
+            this.scenario = scenario;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+
+        //アプリケーションの接続先を組み込みDBに切り替える(DBUtilがシステムプロパティで上書きする)
+        System.setProperty("javax.persistence.jdbc.url", "jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        System.setProperty("javax.persistence.jdbc.driver", "org.h2.Driver");
+        System.setProperty("javax.persistence.jdbc.user", "sa");
+        System.setProperty("javax.persistence.jdbc.password", "");
+        System.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+
+        //application.propertiesがない場合、アプリケーションのペッパー文字列は未設定(null)となる
+        //仮想クライアント毎の管理者と、計測値の取得に使用する管理者を登録する
+        DataGenerator.seed(options.students, options.clients + 1, null);
+
+        EmbeddedServer server = new EmbeddedServer();
+        server.start(options.war, options.port, options.serverThreads);
+        String baseUrl = "http://127.0.0.1:" + server.getPort() + "/";
+        System.out.println("started " + options.war + " at " + baseUrl);
+
+        ExecutorService httpExecutor = Executors.newCachedThreadPool();
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(httpExecutor)
+                .build();
+
+        List<Result> results = new ArrayList<>();
+        try {
+            //ログインの集中の影響を受けないよう、全てのシナリオの準備(管理者のログイン等)を最初に行う
+            Map<Scenario, List<Client>> clients = new LinkedHashMap<>();
+            for (Scenario scenario : options.scenarios) {
+                clients.put(scenario, setup(scenario, http, baseUrl, options));
+            }
+
+            for (Scenario scenario : options.scenarios) {
+                Result r = run(scenario, clients.get(scenario), options);
+                results.add(r);
+                print(r, options);
+            }
+
+            System.out.println();
+            System.out.println(header());
+            for (Result r : results) {
+                System.out.println(row(r, options));
+            }
+            printSqlReport(http, baseUrl, options);
+        } finally {
+            httpExecutor.shutdownNow();
+            server.stop();
+        }
+    }
+
+    /**
+     * シナリオの仮想クライアントを作成し、計測前の準備を行う
+     * 接続元アドレスはシナリオ毎に分ける(10.0.x.xは計測値の取得に使用する)
+     */
+    static List<Client> setup(Scenario scenario, HttpClient http, String baseUrl, Options options) throws Exception {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 1; i <= options.clients; i++) {
+            Client c = new Client(http, baseUrl, scenario.ordinal() + 1, i);
+            scenario.setup(c, i, options);
+            clients.add(c);
+        }
+        return clients;
+    }
+
+    /**
+     * シナリオを実行する
+     * 仮想クライアント毎のスレッドが、共有の連番から開始予定時刻を求めて順に送信する
+     */
+    static Result run(Scenario scenario, List<Client> clients, Options options) throws Exception {
+        Result result = new Result(scenario);
+
+        double rate = options.rateOf(scenario);
+        long interval = (long) (1_000_000_000L / rate);
+        long begin = System.nanoTime() + 100_000_000L;
+        long measureFrom = begin + options.warmup * 1_000_000_000L;
+        long end = measureFrom + options.duration * 1_000_000_000L;
+        AtomicLong seq = new AtomicLong();
+
+        System.out.println(String.format("running %s: %.0f req/s, %d clients, %d s warmup, %d s measured",
+                scenario.getLabel(), rate, options.clients, options.warmup, options.duration));
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.clients);
+        CountDownLatch done = new CountDownLatch(options.clients);
+        for (Client client : clients) {
+            workers.execute(() -> {
+                try {
+                    while (true) {
+                        long i = seq.getAndIncrement();
+                        long scheduled = begin + i * interval;
+                        if (scheduled >= end) {
+                            break;
+                        }
+                        long wait = scheduled - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+
+                        long sent = System.nanoTime();
+                        int status;
+                        try {
+                            status = scenario.step(client, options, i);
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        long received = System.nanoTime();
+
+                        if (scheduled < measureFrom) {
+                            continue;
+                        }
+                        result.latency.recordNanos(received - scheduled);
+                        result.service.recordNanos(received - sent);
+                        if (status < 0) {
+                            result.exceptions.increment();
+                        } else {
+                            result.statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+                        }
+                        if (status == SC_TOO_MANY_REQUESTS) {
+                            result.throttled.increment();
+                        } else if (status != scenario.getExpectedStatus()) {
+                            result.failures.increment();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        result.elapsedNanos = Math.max(System.nanoTime(), end) - measureFrom;
+        workers.shutdown();
+        return result;
+    }
+
+    private static void print(Result r, Options options) {
+        System.out.println("  " + header());
+        System.out.println("  " + row(r, options));
+        System.out.println("  service time (send to response) p50/p99 ms: "
+                + ms(r.service.getPercentileMicros(50)) + " / " + ms(r.service.getPercentileMicros(99))
+                + "  statuses: " + r.statuses.entrySet() + (r.exceptions.sum() > 0 ? " exceptions=" + r.exceptions.sum() : ""));
+    }
+
+    private static String header() {
+        return String.format("%-8s %9s %9s %9s %9s %9s %9s %9s %9s %9s %9s",
+                "scenario", "target/s", "actual/s", "requests", "failures", "429", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    }
+
+    private static String row(Result r, Options options) {
+        LatencyHistogram h = r.latency;
+        long count = h.getCount();
+        return String.format("%-8s %9.1f %9.1f %9d %9d %9d %9s %9s %9s %9s %9s",
+                r.scenario.getLabel(),
+                options.rateOf(r.scenario),
+                count / (r.elapsedNanos / 1e9),
+                count,
+                r.failures.sum(),
+                r.throttled.sum(),
+                ms(h.getPercentileMicros(50)),
+                ms(h.getPercentileMicros(90)),
+                ms(h.getPercentileMicros(99)),
+                ms(h.getPercentileMicros(99.9)),
+                ms(h.getMaxMicros()));
+    }
+
+    private static String ms(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+
+    /**
+     * アプリケーションが記録したSQLの計測値を管理者で取得して出力する
+     */
+    private static void printSqlReport(HttpClient http, String baseUrl, Options options) {
+        try {
+            Client admin = new Client(http, baseUrl, 0, 1);
+            Scenario.loginAdmin(admin, options.clients + 1);
+            if (admin.get("action=Metrics&command=sql") == 200) {
+                System.out.println();
+                System.out.println("server-side SQL profile:");
+                System.out.print(admin.getBody());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
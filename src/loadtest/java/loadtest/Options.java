@@ -0,0 +1,124 @@
+package loadtest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 負荷試験の設定 コマンドライン引数(--名前=値)から作成する
+ */
+public class Options {
+
+    //展開済みのWARのディレクトリ
+    public File war;
+
+    //登録する学生の件数
+    public int students = 10000;
+
+    //実行するシナリオ(実行順)
+    public List<Scenario> scenarios = new ArrayList<>(List.of(Scenario.values()));
+
+    //目標とする1秒あたりのリクエスト数(シナリオ毎)
+    public double rate = 100;
+
+    //シナリオ毎の目標の上書き(例: --rates=login:20,mix:50)
+    public Map<Scenario, Double> rates = new EnumMap<>(Scenario.class);
+
+    //仮想クライアントの数(同時に処理中にできるリクエスト数の上限)
+    public int clients = 32;
+
+    //ウォームアップの時間(秒) 計測値に含めない
+    public int warmup = 5;
+
+    //計測する時間(秒)
+    public int duration = 30;
+
+    //一覧のシナリオで表示するページの範囲(1～この値)
+    public int listPages = 100;
+
+    //mixのシナリオのうち登録の割合(%) 残りは更新
+    public int createPercent = 20;
+
+    //組み込みTomcatのポート(0の場合は空いているポート)
+    public int port = 0;
+
+    //組み込みTomcatのリクエストを処理するスレッド数の上限
+    public int serverThreads = 200;
+
+    /**
+     * シナリオの目標とする1秒あたりのリクエスト数
+     * @param scenario シナリオ
+     * @return 1秒あたりのリクエスト数
+     */
+    public double rateOf(Scenario scenario) {
+        return rates.getOrDefault(scenario, rate);
+    }
+
+    /**
+     * コマンドライン引数から設定を作成する
+     * @param args --名前=値 形式の引数
+     * @return 設定
+     */
+    public static Options parse(String[] args) {
+        Options o = new Options();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("expected --name=value: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+            case "war":
+                o.war = new File(value);
+                break;
+            case "students":
+                o.students = Integer.parseInt(value);
+                break;
+            case "scenarios":
+                o.scenarios.clear();
+                for (String s : value.split(",")) {
+                    o.scenarios.add(Scenario.of(s.trim()));
+                }
+                break;
+            case "rate":
+                o.rate = Double.parseDouble(value);
+                break;
+            case "rates":
+                for (String s : value.split(",")) {
+                    String[] kv = s.split(":");
+                    o.rates.put(Scenario.of(kv[0].trim()), Double.parseDouble(kv[1].trim()));
+                }
+                break;
+            case "clients":
+                o.clients = Integer.parseInt(value);
+                break;
+            case "warmup":
+                o.warmup = Integer.parseInt(value);
+                break;
+            case "duration":
+                o.duration = Integer.parseInt(value);
+                break;
+            case "list-pages":
+                o.listPages = Integer.parseInt(value);
+                break;
+            case "create-percent":
+                o.createPercent = Integer.parseInt(value);
+                break;
+            case "port":
+                o.port = Integer.parseInt(value);
+                break;
+            case "server-threads":
+                o.serverThreads = Integer.parseInt(value);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown option: " + name);
+            }
+        }
+        if (o.war == null || !new File(o.war, "WEB-INF").isDirectory()) {
+            throw new IllegalArgumentException("--war must point to an exploded WAR directory: " + o.war);
+        }
+        return o;
+    }
+}
@@ -0,0 +1,135 @@
+package loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 負荷試験のシナリオ
+ * setupは計測前に仮想クライアント毎に1回、stepは目標のレートで繰り返し実行する
+ */
+public enum Scenario {
+
+    /**
+     * ログインの集中: 新しいブラウザとしてログイン画面を表示し、学生を順に替えながらログインする
+     * (同じ学生番号への試行が集中すると、ログイン試行回数の制限により429となるため)
+     */
+    LOGIN("login", 302) {
+        @Override
+        public void setup(Client client, int index, Options options) {
+        }
+
+        @Override
+        public int step(Client client, Options options, long seq) throws Exception {
+            client.clearCookies();
+            int id = (int) (seq % options.students) + 1;
+            return client.login(DataGenerator.code(id), DataGenerator.PASSWORD);
+        }
+    },
+
+    /**
+     * 一覧の表示: ログイン済みの管理者がランダムなページの学生一覧を表示する
+     */
+    LIST("list", 200) {
+        @Override
+        public void setup(Client client, int index, Options options) throws Exception {
+            loginAdmin(client, index);
+        }
+
+        @Override
+        public int step(Client client, Options options, long seq) throws Exception {
+            int page = ThreadLocalRandom.current().nextInt(options.listPages) + 1;
+            return client.get("action=Student&command=index&page=" + page);
+        }
+    },
+
+    /**
+     * 登録・更新の混在: ログイン済みの管理者が学生を登録、またはランダムな学生の氏名を更新する
+     */
+    MIX("mix", 302) {
+        @Override
+        public void setup(Client client, int index, Options options) throws Exception {
+            loginAdmin(client, index);
+            //CSRF対策用tokenを取得する(セッション中は同じ値)
+            client.get("action=Student&command=entryNew");
+        }
+
+        @Override
+        public int step(Client client, Options options, long seq) throws Exception {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextInt(100) < options.createPercent) {
+                return client.post("action=Student&command=create",
+                        "code", "L" + seq,
+                        "name", "loadtest " + seq,
+                        "password", DataGenerator.PASSWORD,
+                        "admin_flag", "0");
+            }
+            int id = random.nextInt(options.students) + 1;
+            return client.post("action=Student&command=update",
+                    "id", String.valueOf(id),
+                    "code", DataGenerator.code(id),
+                    "name", "updated " + seq,
+                    "password", "",
+                    "admin_flag", "0");
+        }
+    };
+
+    private final String label;
+    private final int expectedStatus;
+
+    private Scenario(String label, int expectedStatus) {
+        this.label = label;
+        this.expectedStatus = expectedStatus;
+    }
+
+    //シナリオ名
+    public String getLabel() {
+        return label;
+    }
+
+    //成功とみなすステータスコード
+    public int getExpectedStatus() {
+        return expectedStatus;
+    }
+
+    /**
+     * 計測前の準備を行う(ログイン等)
+     * @param client 仮想クライアント
+     * @param index 仮想クライアントの連番(1～)
+     * @param options 設定
+     */
+    public abstract void setup(Client client, int index, Options options) throws Exception;
+
+    /**
+     * 1回分の操作を行う
+     * @param client 仮想クライアント
+     * @param options 設定
+     * @param seq 全クライアントを通した連番
+     * @return 最後のリクエストのステータスコード
+     */
+    public abstract int step(Client client, Options options, long seq) throws Exception;
+
+    /**
+     * シナリオ名から該当するシナリオを取得する
+     * @param label シナリオ名
+     * @return シナリオ
+     */
+    public static Scenario of(String label) {
+        for (Scenario s : values()) {
+            if (s.label.equals(label)) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("unknown scenario: " + label);
+    }
+
+    /**
+     * 管理者でログインする
+     * @param client 仮想クライアント
+     * @param index 管理者の連番
+     */
+    static void loginAdmin(Client client, int index) throws Exception {
+        int status = client.login(DataGenerator.adminCode(index), DataGenerator.PASSWORD);
+        if (status != 302) {
+            throw new IllegalStateException("admin login failed: " + status);
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package actions;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
@@ -11,9 +11,16 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import actions.views.StudentView;
 import constants.AttributeConst;
 import constants.ForwardConst;
+import constants.MessageConst;
 import constants.PropertyConst;
+import constants.SecurityConst;
+import utils.AuthToken;
+import utils.CapturingResponseWrapper;
+import utils.CookieUtil;
+import utils.HttpCacheUtil;
 
 /**
  * 各Actionクラスの親クラス。共通処理を行う。
@@ -55,23 +62,31 @@ public abstract class ActionBase {
     protected void invoke()
             throws ServletException, IOException {
 
-        Method commandMethod;
-        try {
+        //パラメータからcommandを取得
+        String command = request.getParameter(ForwardConst.CMD.getValue());
+
+        //commandに該当するメソッドを起動時に作成した対応表から取得する
+        //(例: action=Student command=show の場合 StudentActionクラスのshow()メソッド)
+        MethodHandle commandMethod = ActionRegistry.getInstance().getCommand(this.getClass(), command);
+
+        if (commandMethod == null) {
+            //commandの値が不正で実行できない場合エラー画面を呼び出し
+            forward(ForwardConst.FW_ERR_UNKNOWN);
+            return;
+        }
 
-            //パラメータからcommandを取得
-            String command = request.getParameter(ForwardConst.CMD.getValue());
+        try {
 
-            //ommandに該当するメソッドを実行する
-            //(例: action=Employee command=show の場合 EmployeeActionクラスのshow()メソッドを実行する)
-            commandMethod = this.getClass().getDeclaredMethod(command, new Class[0]);
-            commandMethod.invoke(this, new Object[0]); //メソッドに渡す引数はなし
+            //メソッドを実行する(メソッドに渡す引数はなし)
+            commandMethod.invokeExact(this);
 
-        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException
-                | InvocationTargetException | NullPointerException e) {
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
 
             //発生した例外をコンソールに表示
             e.printStackTrace();
-            //commandの値が不正で実行できない場合エラー画面を呼び出し
+            //実行中に例外が発生した場合エラー画面を呼び出し
             forward(ForwardConst.FW_ERR_UNKNOWN);
         }
 
@@ -94,6 +109,25 @@ public abstract class ActionBase {
 
     }
 
+    /**
+     * 指定されたjspをインクルードし、出力された内容を文字列で返却する
+     * @param target 描画するjsp画面のファイル名(拡張子を含まない)
+     * @return 出力された内容
+     * @throws ServletException
+     * @throws IOException
+     */
+    protected String render(ForwardConst target) throws ServletException, IOException {
+
+        //jspファイルの相対パスを作成
+        String path = String.format("/WEB-INF/views/%s.jsp", target.getValue());
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(response);
+
+        //jspファイルの出力を取得
+        request.getRequestDispatcher(path).include(request, wrapper);
+
+        return wrapper.getContent();
+    }
+
     /**
      * URLを構築しリダイレクトを行う
      * @param action パラメータに設定する値
@@ -139,11 +173,101 @@ public abstract class ActionBase {
     }
 
     /**
-     * セッションIDを取得する
-     * @return セッションID
+     * CSRF対策用tokenを取得する
+     * セッション方式の場合はセッションID、署名付きCookie方式の場合はCookieに保持したランダムな値の署名
+     * @return CSRF対策用token
      */
     protected String getTokenId() {
-        return request.getSession().getId();
+        if (!AuthToken.isEnabled(context)) {
+            return request.getSession().getId();
+        }
+
+        //同一リクエスト内で作成した値があればそれを使用する
+        String seed = (String) request.getAttribute(SecurityConst.CSRF_COOKIE_NAME);
+        if (seed == null) {
+            seed = CookieUtil.get(request, SecurityConst.CSRF_COOKIE_NAME);
+        }
+        if (seed == null) {
+            seed = AuthToken.newCsrfSeed();
+            CookieUtil.set(request, response, SecurityConst.CSRF_COOKIE_NAME, seed, -1);
+        }
+        request.setAttribute(SecurityConst.CSRF_COOKIE_NAME, seed);
+
+        return AuthToken.csrfToken(seed, AuthToken.getSecret(context));
+    }
+
+    /**
+     * ログイン中の学生を取得する
+     * 署名付きCookie方式の場合はLoginFilterがリクエストスコープに設定した学生、セッション方式の場合はセッションの学生
+     * @return ログイン中の学生 未ログインの場合null
+     */
+    protected StudentView getLoginStudent() {
+        StudentView sv = (StudentView) request.getAttribute(AttributeConst.LOGIN_STU.getValue());
+        if (sv == null && !AuthToken.isEnabled(context)) {
+            sv = getSessionScope(AttributeConst.LOGIN_STU);
+        }
+        return sv;
+    }
+
+    /**
+     * 次の画面に表示するフラッシュメッセージを設定する
+     * 署名付きCookie方式の場合はセッションを使用せず、メッセージの種類を短時間のCookieで渡す
+     * (リダイレクト先の画面を別のノードが処理する場合も表示できるようにする)
+     * @param message メッセージ
+     */
+    protected void putFlush(MessageConst message) {
+        if (AuthToken.isEnabled(context)) {
+            CookieUtil.set(request, response, SecurityConst.FLASH_COOKIE_NAME, message.name(),
+                    SecurityConst.FLASH_COOKIE_MAX_AGE_SECONDS);
+        } else {
+            putSessionScope(AttributeConst.FLUSH, message.getMessage());
+        }
+    }
+
+    /**
+     * 設定されているフラッシュメッセージを取得し、削除する
+     * @return メッセージ 設定されていない場合null
+     */
+    protected String takeFlush() {
+        if (AuthToken.isEnabled(context)) {
+            String name = CookieUtil.get(request, SecurityConst.FLASH_COOKIE_NAME);
+            if (name == null || name.equals("")) {
+                return null;
+            }
+            CookieUtil.remove(request, response, SecurityConst.FLASH_COOKIE_NAME);
+            try {
+                return MessageConst.valueOf(name).getMessage();
+            } catch (IllegalArgumentException e) {
+                //定義されていない値は無視する
+                return null;
+            }
+        }
+
+        String flush = getSessionScope(AttributeConst.FLUSH);
+        if (flush != null) {
+            removeSessionScope(AttributeConst.FLUSH);
+        }
+        return flush;
+    }
+
+    /**
+     * 条件付きGETの判定を行い、クライアントが保持している画面が最新であれば304を返却する
+     * 画面の共通部分(ヘッダのログイン中の学生)とクエリ文字列も検証子に含める
+     * @param validator 画面に表示するデータの検証子
+     * @param lastModified 画面に表示するデータの更新日時
+     * @return true: 304を返却した(画面の表示は不要) false: 画面を表示する
+     */
+    protected boolean checkNotModified(String validator, LocalDateTime lastModified) {
+        StudentView login = getLoginStudent();
+        String loginPart = login == null
+                ? "-"
+                : login.getId() + ":" + login.getAdminFlag() + ":" + login.getName();
+
+        return HttpCacheUtil.checkNotModified(
+                request,
+                response,
+                loginPart + "|" + request.getQueryString() + "|" + validator,
+                lastModified);
     }
 
     /**
@@ -0,0 +1,172 @@
+package actions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import constants.ForwardConst;
+
+/**
+ * action/commandの組み合わせと実行するメソッドの対応表を保持するクラス
+ * アプリケーション起動時に一度だけ作成し、リクエスト毎のリフレクションを不要にする
+ *
+ */
+public final class ActionRegistry {
+
+    /**
+     * Actionクラスのパッケージ名
+     */
+    private static final String ACTION_PACKAGE = "actions.";
+
+    /**
+     * Actionクラス名の接尾辞
+     */
+    private static final String ACTION_SUFFIX = "Action";
+
+    /**
+     * 唯一のインスタンス(クラスロード時に作成)
+     */
+    private static final ActionRegistry INSTANCE = new ActionRegistry();
+
+    /**
+     * action名とActionクラスのコンストラクタ(戻り値はActionBase)の対応表
+     */
+    private final Map<String, MethodHandle> constructors;
+
+    /**
+     * Actionクラスとcommand名→メソッド(引数はActionBase)の対応表
+     */
+    private final Map<Class<?>, Map<String, MethodHandle>> commands;
+
+    /**
+     * 登録済みのaction/commandの一覧(診断用)
+     */
+    private final List<String> routes;
+
+    /**
+     * コンストラクタ
+     * ForwardConstのACT_*に定義されたActionクラスを走査して対応表を作成する
+     */
+    private ActionRegistry() {
+        Map<String, MethodHandle> ctors = new HashMap<>();
+        Map<Class<?>, Map<String, MethodHandle>> cmds = new HashMap<>();
+        List<String> rts = new ArrayList<>();
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        for (ForwardConst fc : ForwardConst.values()) {
+            if (!fc.name().startsWith("ACT_")) {
+                continue;
+            }
+
+            String actionName = fc.getValue();
+            Class<? extends ActionBase> type;
+            try {
+                type = Class.forName(ACTION_PACKAGE + actionName + ACTION_SUFFIX).asSubclass(ActionBase.class);
+
+                //引数なしコンストラクタを ()ActionBase の形で保持する
+                MethodHandle ctor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(ActionBase.class));
+                ctors.put(actionName, ctor);
+
+            } catch (ClassNotFoundException | ClassCastException | NoSuchMethodException | IllegalAccessException e) {
+                //対応するActionクラスが作成できない場合は登録しない
+                e.printStackTrace();
+                continue;
+            }
+
+            //public・引数なし・戻り値なしのメソッドをcommandとして登録する
+            Map<String, MethodHandle> typeCommands = new HashMap<>();
+            for (Method m : type.getDeclaredMethods()) {
+                int mod = m.getModifiers();
+                if (!Modifier.isPublic(mod) || Modifier.isStatic(mod) || m.isSynthetic()
+                        || m.getParameterCount() != 0 || m.getReturnType() != void.class
+                        || m.getName().equals("process")) {
+                    continue;
+                }
+                try {
+                    MethodHandle mh = lookup.unreflect(m)
+                            .asType(MethodType.methodType(void.class, ActionBase.class));
+                    typeCommands.put(m.getName(), mh);
+                    rts.add(actionName + "/" + m.getName());
+                } catch (IllegalAccessException e) {
+                    e.printStackTrace();
+                }
+            }
+            cmds.put(type, Collections.unmodifiableMap(typeCommands));
+        }
+
+        Collections.sort(rts);
+
+        this.constructors = Collections.unmodifiableMap(ctors);
+        this.commands = Collections.unmodifiableMap(cmds);
+        this.routes = Collections.unmodifiableList(rts);
+    }
+
+    /**
+     * インスタンスを取得する
+     * @return ActionRegistryのインスタンス
+     */
+    public static ActionRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * action名に該当するActionクラスのインスタンスを作成し、返却する
+     * @param actionName action名(例: Student)
+     * @return Actionクラスのインスタンス 該当するActionクラスがない場合null
+     */
+    public ActionBase newAction(String actionName) {
+        if (actionName == null) {
+            return null;
+        }
+
+        MethodHandle ctor = constructors.get(actionName);
+        if (ctor == null) {
+            return null;
+        }
+
+        try {
+            return (ActionBase) ctor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            //引数なしコンストラクタはチェック例外を送出しないため通常は発生しない
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Actionクラスとcommand名に該当するメソッドを取得する
+     * @param type Actionクラス
+     * @param command command名(例: index)
+     * @return (ActionBase)void 型のメソッドハンドル 該当するメソッドがない場合null
+     */
+    public MethodHandle getCommand(Class<? extends ActionBase> type, String command) {
+        if (command == null) {
+            return null;
+        }
+
+        Map<String, MethodHandle> typeCommands = commands.get(type);
+        if (typeCommands == null) {
+            return null;
+        }
+
+        return typeCommands.get(command);
+    }
+
+    /**
+     * 登録済みのaction/commandの一覧を返却する(診断用)
+     * @return "action/command" 形式の文字列のリスト
+     */
+    public List<String> getRoutes() {
+        return routes;
+    }
+}
@@ -1,15 +1,23 @@
 package actions;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
 
+import actions.views.AuthResult;
 import actions.views.StudentView;
 import constants.AttributeConst;
 import constants.ForwardConst;
 import constants.MessageConst;
 import constants.PropertyConst;
+import constants.SecurityConst;
 import services.StudentService;
+import utils.AuthToken;
+import utils.ClientAddressUtil;
+import utils.CookieUtil;
+import utils.LoginThrottle;
 
 /**
  * 認証に関する処理を行うActionクラス
@@ -17,6 +25,11 @@ import services.StudentService;
  */
 public class AuthAction extends ActionBase {
 	
+	/**
+	 * HTTPステータス 429 Too Many Requests(HttpServletResponseに定数がないため定義する)
+	 */
+	private static final int SC_TOO_MANY_REQUESTS = 429;
+
 	private StudentService service;
 	
 	/**
@@ -43,11 +56,10 @@ public class AuthAction extends ActionBase {
 	        //CSRF対策用トークンを設定
 	        putRequestScope(AttributeConst.TOKEN, getTokenId());
 
-	        //セッションにフラッシュメッセージが登録されている場合はリクエストスコープに設定する
-	        String flush = getSessionScope(AttributeConst.FLUSH);
+	        //フラッシュメッセージが設定されている場合はリクエストスコープに設定する
+	        String flush = takeFlush();
 	        if (flush != null) {
 	            putRequestScope(AttributeConst.FLUSH,flush);
-	            removeSessionScope(AttributeConst.FLUSH);
 	        }
 
 	        //ログイン画面を表示
@@ -64,22 +76,46 @@ public class AuthAction extends ActionBase {
 	        String code = getRequestParam(AttributeConst.STU_CODE);
 	        String plainPass = getRequestParam(AttributeConst.STU_PASS);
 	        String pepper = getContextScope(PropertyConst.PEPPER);
+	        String clientAddr = ClientAddressUtil.getClientAddress(request, getContextScope(PropertyConst.TRUSTED_PROXIES));
+
+	        //試行回数の上限を超えている場合は、ハッシュ化やDBへの問い合わせを行わずに拒否する
+	        if (!LoginThrottle.tryAcquire(code, clientAddr)) {
+	            response.setStatus(SC_TOO_MANY_REQUESTS);
+	            putRequestScope(AttributeConst.TOKEN, getTokenId());
+	            putRequestScope(AttributeConst.ERR, Arrays.asList(MessageConst.E_LOGIN_THROTTLED.getMessage()));
+	            putRequestScope(AttributeConst.STU_CODE, code);
+	            forward(ForwardConst.FW_LOGIN);
+	            return;
+	        }
 
-	        //有効な従業員か認証する
-	        Boolean isValidStudent = service.validateLogin(code, plainPass, pepper);
+	        //有効な学生か認証し、ログインした学生を取得する
+	        AuthResult result = service.authenticate(code, plainPass, pepper);
 
-	        if (isValidStudent) {
+	        //番号またはパスワードの誤り以外(成功・未入力・混雑)は試行回数に数えない
+	        if (result.getFailure() != AuthResult.Failure.INVALID_CREDENTIALS) {
+	            LoginThrottle.release(code, clientAddr);
+	        }
+
+	        if (result.isSuccess()) {
 	            //認証成功の場合
 
 	            //CSRF対策 tokenのチェック
 	            if (checkToken()) {
 
-	                //ログインした従業員のDBデータを取得
-	                StudentView sv = service.findOne(code, plainPass, pepper);
-	                //セッションにログインした従業員を設定
-	                putSessionScope(AttributeConst.LOGIN_STU, sv);
-	                //セッションにログイン完了のフラッシュメッセージを設定
-	                putSessionScope(AttributeConst.FLUSH, MessageConst.I_LOGINED.getMessage());
+	                //ログインした学生を保持する(パスワードのハッシュ値は保持しない)
+	                StudentView sv = result.getStudent();
+	                sv.setPassword(null);
+	                if (AuthToken.isEnabled(context)) {
+	                    //署名付きCookieに設定する
+	                    String token = AuthToken.issue(sv, result.getTokenVersion(), AuthToken.getSecret(context));
+	                    CookieUtil.set(request, response, SecurityConst.AUTH_COOKIE_NAME, token,
+	                            SecurityConst.AUTH_TOKEN_TTL_SECONDS);
+	                } else {
+	                    //セッションに設定する
+	                    putSessionScope(AttributeConst.LOGIN_STU, sv);
+	                }
+	                //ログイン完了のフラッシュメッセージを設定
+	                putFlush(MessageConst.I_LOGINED);
 	                //トップページへリダイレクト
 	                redirect(ForwardConst.ACT_TOP, ForwardConst.CMD_INDEX);
 	            }
@@ -88,8 +124,14 @@ public class AuthAction extends ActionBase {
 
 	            //CSRF対策用トークンを設定
 	            putRequestScope(AttributeConst.TOKEN, getTokenId());
-	            //認証失敗エラーメッセージ表示フラグをたてる
-	            putRequestScope(AttributeConst.LOGIN_ERR, true);
+	            if (result.getFailure() == AuthResult.Failure.BUSY) {
+	                //混雑している場合は再試行を促すメッセージを表示する
+	                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+	                putRequestScope(AttributeConst.ERR, Arrays.asList(MessageConst.E_HASH_BUSY.getMessage()));
+	            } else {
+	                //認証失敗エラーメッセージ表示フラグをたてる
+	                putRequestScope(AttributeConst.LOGIN_ERR, true);
+	            }
 	            //入力された従業員コードを設定
 	            putRequestScope(AttributeConst.STU_CODE, code);
 
@@ -105,11 +147,20 @@ public class AuthAction extends ActionBase {
 	     */
 	    public void logout() throws ServletException, IOException {
 
-	        //セッションからログイン学生のパラメータを削除
-	        removeSessionScope(AttributeConst.LOGIN_STU);
+	        if (AuthToken.isEnabled(context)) {
+	            //発行済みの署名付きCookieを全て失効させ、Cookieを削除する
+	            StudentView sv = getLoginStudent();
+	            if (sv != null) {
+	                service.revokeTokens(sv.getId());
+	            }
+	            CookieUtil.remove(request, response, SecurityConst.AUTH_COOKIE_NAME);
+	        } else {
+	            //セッションからログイン学生のパラメータを削除
+	            removeSessionScope(AttributeConst.LOGIN_STU);
+	        }
 
-	        //セッションにログアウト時のフラッシュメッセージを追加
-	        putSessionScope(AttributeConst.FLUSH, MessageConst.I_LOGOUT.getMessage());
+	        //ログアウト時のフラッシュメッセージを設定
+	        putFlush(MessageConst.I_LOGOUT);
 
 	        //ログイン画面にリダイレクト
 	        redirect(ForwardConst.ACT_AUTH, ForwardConst.CMD_SHOW_LOGIN);
@@ -0,0 +1,85 @@
+package actions;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+
+import actions.views.StudentView;
+import constants.AttributeConst;
+import constants.ForwardConst;
+import constants.MetricsConst;
+import utils.PrometheusWriter;
+import utils.SqlProfiler;
+
+/**
+ * 計測値を出力するActionクラス
+ * 管理者のみ、Prometheusのテキスト形式で全ての計測値、表形式でSQLの計測値を取得できる
+ *
+ */
+public class MetricsAction extends ActionBase {
+
+    /**
+     * メソッドを実行する
+     */
+    @Override
+    public void process() throws ServletException, IOException {
+
+        //メソッドを実行
+        invoke();
+
+    }
+
+    /**
+     * 全ての計測値をPrometheusのテキスト形式で出力する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void index() throws ServletException, IOException {
+
+        //管理者でなければエラー画面を表示
+        if (!checkAdmin()) {
+            return;
+        }
+
+        response.setContentType(MetricsConst.PROMETHEUS_CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-store");
+        new PrometheusWriter(response.getWriter()).writeAll();
+    }
+
+    /**
+     * SQLの種類毎の計測値(実行回数・件数・処理時間の百分位数)を表形式で出力する
+     * パラメータresetが指定された場合は、出力後に計測値を消去する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void sql() throws ServletException, IOException {
+
+        //管理者でなければエラー画面を表示
+        if (!checkAdmin()) {
+            return;
+        }
+
+        response.setContentType("text/plain; charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        response.getWriter().print(SqlProfiler.dump());
+        if (request.getParameter("reset") != null) {
+            SqlProfiler.reset();
+        }
+    }
+
+    /**
+     * ログイン中の学生が管理者かどうか 管理者でない場合はエラー画面を表示する
+     * @return true: 管理者 false: 管理者でない
+     * @throws ServletException
+     * @throws IOException
+     */
+    private boolean checkAdmin() throws ServletException, IOException {
+        StudentView sv = getLoginStudent();
+        if (sv == null || sv.getAdminFlag() != AttributeConst.ROLE_ADMIN.getIntegerValue()) {
+            forward(ForwardConst.FW_ERR_UNKNOWN);
+            return false;
+        }
+        return true;
+    }
+
+}
@@ -1,17 +1,33 @@
 package actions;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.servlet.ServletException;
+import javax.servlet.http.Part;
 
+import actions.views.CursorPage;
+import actions.views.ListValidator;
+import actions.views.StudentImportResult;
+import actions.views.StudentListView;
 import actions.views.StudentView;
 import constants.AttributeConst;
 import constants.ForwardConst;
 import constants.JpaConst;
 import constants.MessageConst;
 import constants.PropertyConst;
+import constants.SecurityConst;
+import services.StudentExportService;
+import services.StudentImportService;
 import services.StudentService;
+import utils.AuthToken;
+import utils.CookieUtil;
+import utils.CursorUtil;
+import utils.StudentListCache;
 
 
 public class StudentAction extends ActionBase{
@@ -38,23 +54,38 @@ public class StudentAction extends ActionBase{
      */
     public void index() throws ServletException, IOException {
 
-        //指定されたページ数の一覧画面に表示するデータを取得
-        int page = getPage();
-        List<StudentView> students = service.getPerPage(page);
+        //学生データの更新日時の最大値と件数(他のノードでの更新も反映される)
+        ListValidator validator = service.getListValidator();
+        String version = validator.getLastUpdatedAt() + ":" + validator.getCount();
 
-        //全ての学生データの件数を取得
-        long studentCount = service.countAll();
+        //フラッシュメッセージが設定されている場合は毎回内容が変わるため、条件付きGETの対象外とする(取得時に設定は削除する)
+        String flush = takeFlush();
+        if (flush == null) {
+            //学生データの更新日時の最大値と件数が前回の表示時から変わっていなければ、一覧の取得・表示を行わない
+            if (checkNotModified(version, validator.getLastUpdatedAt())) {
+                return;
+            }
+        }
 
-        putRequestScope(AttributeConst.STUDENTS, students); //取得した学生データ
-        putRequestScope(AttributeConst.STU_COUNT, studentCount); //全ての学生データの件数
-        putRequestScope(AttributeConst.PAGE, page); //ページ数
-        putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE); //1ページに表示するレコードの数
+        //前回の確認から学生データが変わっていれば(他のノードでの更新を含む)、このノードの描画結果とクエリキャッシュを破棄する
+        if (StudentListCache.sync(version)) {
+            service.evictQueryCache();
+        }
+
+        //一覧部分の描画結果を保持していればそれを使用し、学生データの取得・描画を行わない
+        String key = getListCacheKey();
+        String list = StudentListCache.get(key);
+        if (list == null) {
+            //描画中に学生データが更新された場合に古い内容を保持しないよう、取得前の世代を控えておく
+            long generation = StudentListCache.generation();
+            list = renderList();
+            StudentListCache.put(key, list, generation);
+        }
+        putRequestScope(AttributeConst.STU_LIST_HTML, list); //一覧部分の描画結果
 
-        //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
-        String flush = getSessionScope(AttributeConst.FLUSH);
+        //フラッシュメッセージが設定されている場合はリクエストスコープに設定する
         if (flush != null) {
             putRequestScope(AttributeConst.FLUSH, flush);
-            removeSessionScope(AttributeConst.FLUSH);
         }
 
         //一覧画面を表示
@@ -116,8 +147,8 @@ public class StudentAction extends ActionBase{
             } else {
                 //登録中にエラーがなかった場合
 
-                //セッションに登録完了のフラッシュメッセージを設定
-                putSessionScope(AttributeConst.FLUSH, MessageConst.I_REGISTERED.getMessage());
+                //登録完了のフラッシュメッセージを設定
+                putFlush(MessageConst.I_REGISTERED);
 
                 //一覧画面にリダイレクト
                 redirect(ForwardConst.ACT_STU, ForwardConst.CMD_INDEX);
@@ -133,8 +164,16 @@ public class StudentAction extends ActionBase{
      */
     public void show() throws ServletException, IOException {
 
+        int id = toNumber(getRequestParam(AttributeConst.STU_ID));
+
+        //学生データの更新日時が前回の表示時から変わっていなければ、学生データの取得・表示を行わない
+        LocalDateTime updatedAt = service.getUpdatedAt(id);
+        if (updatedAt != null && checkNotModified(updatedAt.toString(), updatedAt)) {
+            return;
+        }
+
         //idを条件に学生データを取得する
-        StudentView sv = service.findOne(toNumber(getRequestParam(AttributeConst.STU_ID)));
+        StudentView sv = service.findOne(id);
 
         if (sv == null || sv.getDeleteFlag() == AttributeConst.DEL_FLAG_TRUE.getIntegerValue()) {
 
@@ -212,8 +251,14 @@ public class StudentAction extends ActionBase{
             } else {
                 //更新中にエラーがなかった場合
 
-                //セッションに更新完了のフラッシュメッセージを設定
-                putSessionScope(AttributeConst.FLUSH, MessageConst.I_UPDATED.getMessage());
+                //ログイン中の学生が自身を更新した場合は、変更後の内容でログイン状態を設定し直す
+                StudentView login = getLoginStudent();
+                if (login != null && login.getId().equals(sv.getId())) {
+                    refreshLogin(sv.getId());
+                }
+
+                //更新完了のフラッシュメッセージを設定
+                putFlush(MessageConst.I_UPDATED);
 
                 //一覧画面にリダイレクト
                 redirect(ForwardConst.ACT_STU, ForwardConst.CMD_INDEX);
@@ -234,8 +279,8 @@ public class StudentAction extends ActionBase{
             //idを条件に従業員データを論理削除する
             service.destroy(toNumber(getRequestParam(AttributeConst.STU_ID)));
 
-            //セッションに削除完了のフラッシュメッセージを設定
-            putSessionScope(AttributeConst.FLUSH, MessageConst.I_DELETED.getMessage());
+            //削除完了のフラッシュメッセージを設定
+            putFlush(MessageConst.I_DELETED);
 
             //一覧画面にリダイレクト
             redirect(ForwardConst.ACT_STU, ForwardConst.CMD_INDEX);
@@ -243,6 +288,173 @@ public class StudentAction extends ActionBase{
     }
 
     
+    /**
+     * 一括登録(CSV取込)画面を表示する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void entryImport() throws ServletException, IOException {
+
+        //管理者かどうかのチェック
+        if (checkAdmin()) {
+
+            putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+
+            //一括登録画面を表示
+            forward(ForwardConst.FW_STU_IMPORT);
+        }
+    }
+
+    /**
+     * アップロードされたCSVファイルから学生を一括登録する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void importCsv() throws ServletException, IOException {
+
+        //管理者かどうかのチェック、CSRF対策 tokenのチェック
+        if (checkAdmin() && checkToken()) {
+
+            Part file = request.getPart(AttributeConst.STU_IMPORT_FILE.getValue());
+
+            if (file == null || file.getSize() == 0) {
+                //ファイルが選択されていない場合は一括登録画面を再表示
+                putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+                putRequestScope(AttributeConst.ERR, Arrays.asList(MessageConst.E_IMPORT_NOFILE.getMessage()));
+                forward(ForwardConst.FW_STU_IMPORT);
+                return;
+            }
+
+            //アプリケーションスコープからpepper文字列を取得
+            String pepper = getContextScope(PropertyConst.PEPPER);
+
+            //CSVを読み込みながら一括登録を行う
+            StudentImportResult result;
+            try (InputStream is = file.getInputStream()) {
+                result = new StudentImportService(service).importCsv(is, pepper);
+            }
+
+            putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+            putRequestScope(AttributeConst.STU_IMPORT_RESULT, result); //取込結果
+            if (result.getErrorCount() == 0) {
+                putRequestScope(AttributeConst.FLUSH, MessageConst.I_IMPORTED.getMessage());
+            }
+
+            //一括登録画面に取込結果を表示
+            forward(ForwardConst.FW_STU_IMPORT);
+        }
+    }
+
+    /**
+     * 全ての学生をCSVまたはJSON Lines形式でダウンロードさせる
+     * DBから1行読み込む毎にレスポンスへ書き出す
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void export() throws ServletException, IOException {
+
+        //管理者かどうかのチェック
+        if (checkAdmin()) {
+
+            boolean jsonLines = AttributeConst.EXP_FORMAT_JSONL.getValue()
+                    .equals(getRequestParam(AttributeConst.EXP_FORMAT));
+
+            if (jsonLines) {
+                response.setContentType("application/x-ndjson; charset=UTF-8");
+                response.setHeader("Content-Disposition", "attachment; filename=\"students.jsonl\"");
+            } else {
+                response.setContentType("text/csv; charset=UTF-8");
+                response.setHeader("Content-Disposition", "attachment; filename=\"students.csv\"");
+            }
+
+            StudentExportService exportService = new StudentExportService();
+            try {
+                Writer out = response.getWriter();
+                if (jsonLines) {
+                    exportService.exportJsonLines(out);
+                } else {
+                    exportService.exportCsv(out);
+                }
+                out.flush();
+            } finally {
+                exportService.close();
+            }
+        }
+    }
+
+    /**
+     * 一覧部分に表示するデータを取得し、描画した結果を返却する
+     * @return 一覧部分の描画結果
+     * @throws ServletException
+     * @throws IOException
+     */
+    private String renderList() throws ServletException, IOException {
+
+        if (getRequestParam(AttributeConst.PAGE) != null) {
+            //ページ数が指定されている場合は、指定されたページ数の一覧画面に表示するデータを取得
+            int page = getPage();
+            List<StudentListView> students = service.getPerPage(page);
+
+            putRequestScope(AttributeConst.STUDENTS, students); //取得した学生データ
+            putRequestScope(AttributeConst.PAGE, page); //ページ数
+        } else {
+            //カーソルが示す位置から一覧画面に表示するデータを取得
+            CursorPage<StudentListView> students = service.getPerPage(getRequestParam(AttributeConst.CURSOR));
+
+            putRequestScope(AttributeConst.STUDENTS, students.getItems()); //取得した学生データ
+            putRequestScope(AttributeConst.NEXT_CURSOR, students.getNextCursor()); //次のページのカーソル
+            putRequestScope(AttributeConst.PREV_CURSOR, students.getPrevCursor()); //前のページのカーソル
+        }
+
+        //全ての学生データの件数を取得
+        long studentCount = service.countAll();
+
+        putRequestScope(AttributeConst.STU_COUNT, studentCount); //全ての学生データの件数
+        putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE); //1ページに表示するレコードの数
+
+        //一覧部分を描画
+        return render(ForwardConst.FW_STU_LIST);
+    }
+
+    /**
+     * 一覧部分の描画結果を保持するキーを作成する(ページ数またはカーソルが示す位置)
+     * @return キー
+     */
+    private String getListCacheKey() {
+        if (getRequestParam(AttributeConst.PAGE) != null) {
+            return AttributeConst.PAGE.getValue() + "=" + getPage();
+        }
+
+        //同じ位置を示すカーソルは同じキーとなるよう、方向と基準idから作成する
+        String cursor = getRequestParam(AttributeConst.CURSOR);
+        char direction = CursorUtil.getDirection(cursor);
+        if (direction != CursorUtil.AFTER && direction != CursorUtil.BEFORE) {
+            return AttributeConst.CURSOR.getValue() + "=";
+        }
+        return AttributeConst.CURSOR.getValue() + "=" + direction + CursorUtil.getId(cursor);
+    }
+
+    /**
+     * ログイン中の学生の情報を更新後の内容で設定し直す
+     * 署名付きCookie方式の場合は、更新で失効した(バージョンが加算された)Cookieに代わり新しいCookieを発行する
+     * @param id ログイン中の学生のid
+     */
+    private void refreshLogin(int id) {
+        StudentView updated = service.findOne(id);
+        updated.setPassword(null);
+
+        if (AuthToken.isEnabled(context)) {
+            Integer version = service.getTokenVersion(id);
+            if (version != null) {
+                String token = AuthToken.issue(updated, version, AuthToken.getSecret(context));
+                CookieUtil.set(request, response, SecurityConst.AUTH_COOKIE_NAME, token,
+                        SecurityConst.AUTH_TOKEN_TTL_SECONDS);
+            }
+        } else {
+            putSessionScope(AttributeConst.LOGIN_STU, updated);
+        }
+    }
+
     /**
      * ログイン中の学生が管理者かどうかチェックし、管理者でなければエラー画面を表示
      * true: 管理者 false: 管理者ではない
@@ -252,7 +464,7 @@ public class StudentAction extends ActionBase{
     private boolean checkAdmin() throws ServletException, IOException {
 
         //セッションからログイン中の従業員情報を取得
-    	StudentView sv = (StudentView) getSessionScope(AttributeConst.LOGIN_STU);
+    	StudentView sv = getLoginStudent();
 
         //管理者でなければエラー画面を表示
         if (sv.getAdminFlag() != AttributeConst.ROLE_ADMIN.getIntegerValue()) {
@@ -25,11 +25,10 @@ public class TopAction extends ActionBase {
      */
     public void index() throws ServletException, IOException {
 
-        //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
-        String flush = getSessionScope(AttributeConst.FLUSH);
+        //フラッシュメッセージが設定されている場合はリクエストスコープに移し替え、設定を削除する
+        String flush = takeFlush();
         if (flush != null) {
             putRequestScope(AttributeConst.FLUSH, flush);
-            removeSessionScope(AttributeConst.FLUSH);
         }
 
         //一覧画面を表示
@@ -0,0 +1,68 @@
+package actions.views;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * ログイン認証の結果を扱うクラス
+ * 認証に成功した場合はログインした学生、失敗した場合はその理由を保持する
+ *
+ */
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+public class AuthResult {
+
+    /**
+     * 認証失敗の理由
+     */
+    public enum Failure {
+        //番号またはパスワードが未入力
+        EMPTY_INPUT,
+        //番号とパスワードに該当する未削除の学生が存在しない
+        INVALID_CREDENTIALS,
+        //ハッシュ化専用スレッドプールが混雑している
+        BUSY
+    }
+
+    /**
+     * ログインした学生 認証失敗の場合null
+     */
+    private StudentView student;
+
+    /**
+     * 認証失敗の理由 認証成功の場合null
+     */
+    private Failure failure;
+
+    /**
+     * ログインした学生の署名付きCookieのバージョン 認証失敗の場合null
+     */
+    private Integer tokenVersion;
+
+    /**
+     * 認証成功の結果を作成する
+     * @param student ログインした学生
+     * @param tokenVersion 署名付きCookieのバージョン
+     * @return 認証結果
+     */
+    public static AuthResult success(StudentView student, Integer tokenVersion) {
+        return new AuthResult(student, null, tokenVersion);
+    }
+
+    /**
+     * 認証失敗の結果を作成する
+     * @param failure 失敗の理由
+     * @return 認証結果
+     */
+    public static AuthResult failure(Failure failure) {
+        return new AuthResult(null, failure, null);
+    }
+
+    /**
+     * 認証に成功したかどうか
+     * @return true: 成功 false: 失敗
+     */
+    public boolean isSuccess() {
+        return student != null;
+    }
+}
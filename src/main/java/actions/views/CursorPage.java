@@ -0,0 +1,31 @@
+package actions.views;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * シーク方式ページングで取得した1ページ分のデータと前後ページのカーソルを保持するクラス
+ *
+ */
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+public class CursorPage<V> {
+
+    /**
+     * 表示するデータのリスト
+     */
+    private List<V> items;
+
+    /**
+     * 次のページ(古い方向)のカーソル 次のページがない場合null
+     */
+    private String nextCursor;
+
+    /**
+     * 前のページ(新しい方向)のカーソル 前のページがない場合null
+     */
+    private String prevCursor;
+
+}
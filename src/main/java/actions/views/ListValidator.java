@@ -0,0 +1,26 @@
+package actions.views;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 一覧画面の条件付きGET(ETag)に使用する、学生テーブル全体の更新状況を保持するクラス
+ *
+ */
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+public class ListValidator {
+
+    /**
+     * 全ての学生の更新日時の最大値 学生が登録されていない場合null
+     */
+    private LocalDateTime lastUpdatedAt;
+
+    /**
+     * 全ての学生の件数
+     */
+    private long count;
+
+}
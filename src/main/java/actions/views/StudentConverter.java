@@ -31,7 +31,8 @@ public class StudentConverter {
                         ? null
                         : sv.getDeleteFlag() == AttributeConst.DEL_FLAG_TRUE.getIntegerValue()
                                 ? JpaConst.STU_DEL_TRUE
-                                : JpaConst.STU_DEL_FALSE);
+                                : JpaConst.STU_DEL_FALSE,
+                JpaConst.STU_TOKEN_VERSION_INITIAL);
     }
 
     /**
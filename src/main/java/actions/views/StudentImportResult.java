@@ -0,0 +1,66 @@
+package actions.views;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * 学生の一括登録(CSV取込)の結果を扱うViewモデル
+ *
+ */
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+public class StudentImportResult {
+
+    /**
+     * 画面に表示するエラーの最大件数
+     */
+    public static final int MAX_ERRORS = 100;
+
+    /**
+     * 読み込んだデータ行の件数
+     */
+    private int rowCount;
+
+    /**
+     * 登録した件数
+     */
+    private int importedCount;
+
+    /**
+     * エラーとなった行の件数
+     */
+    private int errorCount;
+
+    /**
+     * 行毎のエラー(最大 MAX_ERRORS 件)
+     */
+    private List<String> errors = new ArrayList<>();
+
+    /**
+     * 読み込んだデータ行の件数を加算する
+     */
+    public void addRow() {
+        rowCount++;
+    }
+
+    /**
+     * 登録した件数を加算する
+     * @param count 件数
+     */
+    public void addImported(int count) {
+        importedCount += count;
+    }
+
+    /**
+     * エラーを追加する
+     * @param lineNumber 行番号
+     * @param message エラーメッセージ
+     */
+    public void addError(int lineNumber, String message) {
+        errorCount++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(lineNumber + "行目: " + message);
+        }
+    }
+}
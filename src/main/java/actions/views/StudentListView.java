@@ -0,0 +1,35 @@
+package actions.views;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 学生一覧画面の1行分の表示項目を扱うViewモデル
+ * 一覧画面に表示する項目のみをDBから直接取得する(エンティティとして管理されない読み取り専用のデータ)
+ *
+ */
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+public class StudentListView {
+
+    /**
+     * id
+     */
+    private Integer id;
+
+    /**
+     * 番号
+     */
+    private String code;
+
+    /**
+     * 氏名
+     */
+    private String name;
+
+    /**
+     * 削除された学生かどうか（現役：0、削除済み：1）
+     */
+    private Integer deleteFlag;
+
+}
@@ -1,5 +1,6 @@
 package actions.views;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
 import lombok.AllArgsConstructor;
@@ -9,6 +10,7 @@ import lombok.Setter;
 
 /**
  * 学生情報について画面の入力値・出力値を扱うViewモデル
+ * ログイン中の学生としてセッションに保持するため、直列化可能とする
  *
  */
 
@@ -16,7 +18,10 @@ import lombok.Setter;
 @Setter //全てのクラスフィールドについてsetterを自動生成する(Lombok)
 @NoArgsConstructor //引数なしコンストラクタを自動生成する(Lombok)
 @AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコン
-public class StudentView {
+public class StudentView implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
 	 /**
      * id
      */
@@ -0,0 +1,20 @@
+package constants;
+
+/**
+ * 静的ファイル(CSS等)の配信に関わる設定値を定義するインターフェース
+ * ※インターフェイスに定義した変数は public static final 修飾子がついているとみなされる
+ */
+public interface AssetConst {
+
+    //フィンガープリント付きの静的ファイルを配信するURLの接頭辞
+    String ASSET_URL_PREFIX = "/assets";
+    //起動時に読み込む静的ファイルのフォルダ(Webアプリケーションのルートからのパス)
+    String[] ASSET_DIRS = { "/css/" };
+    //ファイル名に付加するハッシュ値(SHA-256の16進表記)の長さ
+    int ASSET_HASH_LENGTH = 12;
+    //ブラウザにキャッシュさせる期間(秒) 内容が変わるとURLが変わるため最大の1年とする
+    long ASSET_MAX_AGE_SECONDS = 365L * 24 * 60 * 60;
+    //gzip圧縮した内容を用意する最小のサイズ(バイト)
+    int ASSET_GZIP_MIN_BYTES = 256;
+
+}
@@ -12,6 +12,9 @@ public enum AttributeConst {
     //一覧画面共通
     MAX_ROW("maxRow"),
     PAGE("page"),
+    CURSOR("cursor"),
+    NEXT_CURSOR("nextCursor"),
+    PREV_CURSOR("prevCursor"),
 
     //入力フォーム共通
     TOKEN("_token"),
@@ -27,11 +30,19 @@ public enum AttributeConst {
     STUDENT("student"),
     STUDENTS("students"),
     STU_COUNT("students_count"),
+    STU_LIST_HTML("studentList"),
     STU_ID("id"),
     STU_CODE("code"),
     STU_PASS("password"),
     STU_NAME("name"),
     STU_ADMIN_FLG("admin_flag"),
+    STU_IMPORT_FILE("csv_file"),
+    STU_IMPORT_RESULT("importResult"),
+
+    //全件出力
+    EXP_FORMAT("format"),
+    EXP_FORMAT_CSV("csv"),
+    EXP_FORMAT_JSONL("jsonl"),
 
     //管理者フラグ
     ROLE_ADMIN(1),
@@ -0,0 +1,18 @@
+package constants;
+
+/**
+ * 画面の描画結果のキャッシュに関わる設定値を定義するインターフェース
+ * ※インターフェイスに定義した変数は public static final 修飾子がついているとみなされる
+ */
+public interface CacheConst {
+
+    //学生一覧の描画結果を保持する最大件数
+    int STU_LIST_CACHE_MAX_ENTRIES = 256;
+    //学生一覧の描画結果を保持する最大の合計サイズ(文字数)
+    long STU_LIST_CACHE_MAX_CHARS = 2L * 1024 * 1024;
+    //1件の描画結果がこの文字数を超える場合は保持しない
+    int STU_LIST_CACHE_MAX_ENTRY_CHARS = 256 * 1024;
+    //学生一覧の描画結果を保持する最大の時間(ナノ秒) 更新日時と件数で検知できない更新(ノード間の時刻のずれ等)もこの時間内に反映される
+    long STU_LIST_CACHE_TTL_NANOS = 60_000_000_000L;
+
+}
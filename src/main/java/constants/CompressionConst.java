@@ -0,0 +1,29 @@
+package constants;
+
+/**
+ * 動的なレスポンス(JSPで作成したHTML、CSV出力等)の圧縮に関わる設定値を定義するインターフェース
+ * ※インターフェイスに定義した変数は public static final 修飾子がついているとみなされる
+ */
+public interface CompressionConst {
+
+    //圧縮方式(Content-Encodingの値)
+    String ENCODING_GZIP = "gzip";
+    String ENCODING_DEFLATE = "deflate";
+
+    //圧縮する最小のサイズ(バイト) これより小さいレスポンスは圧縮しない
+    int COMPRESS_MIN_BYTES = 1024;
+    //圧縮レベル(1:速度優先～9:圧縮率優先)
+    int COMPRESS_LEVEL = 6;
+    //圧縮処理の作業領域の大きさ(バイト)
+    int COMPRESS_BUFFER_BYTES = 8192;
+    //再利用のために保持するDeflaterの数(圧縮方式毎)
+    int DEFLATER_POOL_SIZE = 32;
+    //圧縮するContent-Typeの接頭辞
+    String[] COMPRESSIBLE_TYPES = {
+            "text/",
+            "application/json",
+            "application/x-ndjson",
+            "application/javascript",
+            "application/xml" };
+
+}
@@ -11,6 +11,7 @@ public enum ForwardConst {
     ACT_TOP("Top"),
     ACT_STU("Student"),
     ACT_AUTH("Auth"),
+    ACT_METRICS("Metrics"),
 
     //command
     CMD("command"),
@@ -25,15 +26,20 @@ public enum ForwardConst {
     CMD_EDIT("edit"),
     CMD_UPDATE("update"),
     CMD_DESTROY("destroy"),
+    CMD_IMPORT_NEW("entryImport"),
+    CMD_IMPORT("importCsv"),
+    CMD_EXPORT("export"),
 
     //jsp
     FW_ERR_UNKNOWN("error/unknown"),
     FW_TOP_INDEX("topPage/index"),
     FW_LOGIN("login/login"),
     FW_STU_INDEX("students/index"),
+    FW_STU_LIST("students/_list"),
     FW_STU_SHOW("students/show"),
     FW_STU_NEW("students/new"),
-    FW_STU_EDIT("students/edit");
+    FW_STU_EDIT("students/edit"),
+    FW_STU_IMPORT("students/import");
 
     /**
      * 文字列
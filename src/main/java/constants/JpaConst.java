@@ -8,10 +8,37 @@ public interface JpaConst {
 
     //persistence-unit名
     String PERSISTENCE_UNIT_NAME = "time_schedule";
+    //persistence.xmlの設定のうち、同名のシステムプロパティ(-D)で上書きできるもの(ベンチマーク・負荷試験で接続先を切り替える)
+    String[] PERSISTENCE_OVERRIDABLE_PROPS = {
+            "javax.persistence.jdbc.url",
+            "javax.persistence.jdbc.driver",
+            "javax.persistence.jdbc.user",
+            "javax.persistence.jdbc.password",
+            "hibernate.dialect" };
 
     //データ取得件数の最大値
     int ROW_PER_PAGE = 15; //1ページに表示するレコードの数
 
+    //一括登録
+    int IMPORT_CHUNK_SIZE = 1000; //まとめて検証・登録する件数
+    int JDBC_BATCH_SIZE = 100; //1回のバッチで送信するINSERTの件数
+
+    //全件出力
+    int EXPORT_FETCH_SIZE = 1000; //DBから1回に読み込む件数
+
+    //SQLの計測(SqlProfiler)
+    String PROFILER_SLOW_QUERY_MILLIS = "profiler.slow_query_millis"; //遅いSQLとしてログに出力する処理時間(ミリ秒)を指定するpersistence.xmlのプロパティ名
+    long PROFILER_SLOW_QUERY_MILLIS_DEFAULT = 200; //上記のプロパティがない場合の処理時間(ミリ秒)
+    String PROFILER_JDBC_WRAPPER = "profiler.jdbc_wrapper"; //trueの場合、接続をラップして件数・例外の回数も記録するpersistence.xmlのプロパティ名
+    int PROFILER_MAX_QUERIES = 500; //計測値を記録するSQLの種類の上限(超えた分はまとめて記録する)
+    int PROFILER_SQL_LOG_LENGTH = 500; //ログに出力するSQLの最大文字数
+
+    //学生番号のブルームフィルタ
+    double CODE_INDEX_FPP = 0.01; //誤判定(登録されているかもしれない)の割合
+    long CODE_INDEX_MIN_CAPACITY = 1024; //想定件数の最小値
+    long CODE_INDEX_GROWTH_FACTOR = 2; //作成時の件数に対する想定件数の倍率(この件数を超えたら作り直す)
+    long CODE_INDEX_MAX_AGE_NANOS = JpaConst.CNT_RECONCILE_INTERVAL_MINUTES * 60_000_000_000L; //フィルタの判定を使用する期間(件数補正の度に作り直す)
+
     //学生テーブル
     String TABLE_STU = "students"; //テーブル名
     //学生テーブルカラム
@@ -23,32 +50,103 @@ public interface JpaConst {
     String STU_COL_CREATED_AT = "created_at"; //登録日時
     String STU_COL_UPDATED_AT = "updated_at"; //更新日時
     String STU_COL_DELETE_FLAG = "delete_flag"; //削除フラグ
+    String STU_COL_TOKEN_VERSION = "token_version"; //署名付きCookieのバージョン(更新・ログアウト時に加算し、発行済みのCookieを失効させる)
+
+    //学生テーブルの番号の一意制約名(小文字)
+    String STU_UK_CODE = "uk_students_code";
+    //一意制約等の整合性制約違反を表すSQLSTATEの分類
+    String SQL_STATE_INTEGRITY_VIOLATION = "23";
+
+    //学生件数テーブル
+    String TABLE_CNT = "student_counters"; //テーブル名
+    //学生件数テーブルカラム
+    String CNT_COL_NAME = "counter_name"; //件数の種類
+    String CNT_COL_VALUE = "counter_value"; //件数
+
+    //件数の種類
+    String CNT_TOTAL = "total"; //全ての学生
+    String CNT_ACTIVE = "active"; //現役の学生
+    String CNT_DELETED = "deleted"; //削除済みの学生
+
+    //学生件数を実際の件数と突き合わせる間隔(分)
+    int CNT_RECONCILE_INTERVAL_MINUTES = 10;
 
     int ROLE_ADMIN = 1; //管理者権限ON(管理者)
     int ROLE_GENERAL = 0; //管理者権限OFF(一般)
     int STU_DEL_TRUE = 1; //削除フラグON(削除済み)
+    int STU_TOKEN_VERSION_INITIAL = 0; //署名付きCookieのバージョンの初期値
     int STU_DEL_FALSE = 0; //削除フラグOFF(現役)
 
     //Entity名
     String ENTITY_STU = "student"; //学生
+    String ENTITY_CNT = "studentCounter"; //学生件数
    
     //JPQL内パラメータ
+    String JPQL_PARM_ID = "id"; //id
     String JPQL_PARM_CODE = "code"; //社員番号
-    String JPQL_PARM_PASSWORD = "password"; //パスワード
+    String JPQL_PARM_CODES = "codes"; //番号のリスト
     String JPQL_PARM_STUDENT = "student"; //学生
+    String JPQL_PARM_NAME = "name"; //件数の種類
+    String JPQL_PARM_DELTA = "delta"; //件数の増減値
 
     //NamedQueryの nameとquery
-    //全ての学生をidの降順に取得する
+    //一覧画面に表示する項目(id, 番号, 氏名, 削除フラグ)
+    String STU_LIST_SELECT = "SELECT NEW actions.views.StudentListView(e.id, e.code, e.name, e.deleteFlag) FROM Student AS e";
+    //全ての学生の一覧表示項目をidの降順に取得する
     String Q_STU_GET_ALL = ENTITY_STU + ".getAll"; //name
-    String Q_STU_GET_ALL_DEF = "SELECT e FROM Student AS e ORDER BY e.id DESC"; //query
+    String Q_STU_GET_ALL_DEF = STU_LIST_SELECT + " ORDER BY e.id DESC"; //query
+    //全ての学生の出力項目(パスワード以外)をidの昇順に取得する
+    String Q_STU_EXPORT = ENTITY_STU + ".export";
+    String Q_STU_EXPORT_DEF = "SELECT e.id, e.code, e.name, e.adminFlag, e.createdAt, e.updatedAt, e.deleteFlag FROM Student AS e ORDER BY e.id";
+    //指定したidより小さいidの学生の一覧表示項目をidの降順に取得する(シーク方式ページング 次ページ)
+    String Q_STU_GET_AFTER_ID = ENTITY_STU + ".getAfterId";
+    String Q_STU_GET_AFTER_ID_DEF = STU_LIST_SELECT + " WHERE e.id < :" + JPQL_PARM_ID + " ORDER BY e.id DESC";
+    //指定したidより大きいidの学生の一覧表示項目をidの昇順に取得する(シーク方式ページング 前ページ)
+    String Q_STU_GET_BEFORE_ID = ENTITY_STU + ".getBeforeId";
+    String Q_STU_GET_BEFORE_ID_DEF = STU_LIST_SELECT + " WHERE e.id > :" + JPQL_PARM_ID + " ORDER BY e.id ASC";
     //全ての学生の件数を取得する
     String Q_STU_COUNT = ENTITY_STU + ".count";
     String Q_STU_COUNT_DEF = "SELECT COUNT(e) FROM Student AS e";
-    //番号とハッシュ化済パスワードを条件に未削除の学生を取得する
-    String Q_STU_GET_BY_CODE_AND_PASS = ENTITY_STU + ".getByCodeAndPass";
-    String Q_STU_GET_BY_CODE_AND_PASS_DEF = "SELECT e FROM Student AS e WHERE e.deleteFlag = 0 AND e.code = :" + JPQL_PARM_CODE + " AND e.password = :" + JPQL_PARM_PASSWORD;
+    //削除済みの学生の件数を取得する
+    String Q_STU_COUNT_DELETED = ENTITY_STU + ".countDeleted";
+    String Q_STU_COUNT_DELETED_DEF = "SELECT COUNT(e) FROM Student AS e WHERE e.deleteFlag = " + STU_DEL_TRUE;
+    //番号を条件に未削除の学生を取得する(パスワードは取得後に照合する)
+    String Q_STU_GET_BY_CODE = ENTITY_STU + ".getByCode";
+    String Q_STU_GET_BY_CODE_DEF = "SELECT e FROM Student AS e WHERE e.deleteFlag = 0 AND e.code = :" + JPQL_PARM_CODE;
+    //指定した番号のうち登録済みのものを取得する
+    String Q_STU_GET_CODES_IN = ENTITY_STU + ".getCodesIn";
+    String Q_STU_GET_CODES_IN_DEF = "SELECT e.code FROM Student AS e WHERE e.code IN :" + JPQL_PARM_CODES;
+    //全ての学生の番号を取得する(ブルームフィルタの作成用)
+    String Q_STU_GET_ALL_CODES = ENTITY_STU + ".getAllCodes";
+    String Q_STU_GET_ALL_CODES_DEF = "SELECT e.code FROM Student AS e";
+    //指定したidの未削除の学生の署名付きCookieのバージョンを取得する
+    String Q_STU_GET_TOKEN_VERSION = ENTITY_STU + ".getTokenVersion";
+    String Q_STU_GET_TOKEN_VERSION_DEF = "SELECT e.tokenVersion FROM Student AS e WHERE e.deleteFlag = 0 AND e.id = :" + JPQL_PARM_ID;
+    //指定したidの学生の署名付きCookieのバージョンを加算する
+    String Q_STU_INCREMENT_TOKEN_VERSION = ENTITY_STU + ".incrementTokenVersion";
+    String Q_STU_INCREMENT_TOKEN_VERSION_DEF = "UPDATE Student AS e SET e.tokenVersion = e.tokenVersion + 1 WHERE e.id = :" + JPQL_PARM_ID;
     //指定した番号を保持する学生の件数を取得する
     String Q_STU_COUNT_RESISTERED_BY_CODE = ENTITY_STU + ".countRegisteredByCode";
     String Q_STU_COUNT_RESISTERED_BY_CODE_DEF = "SELECT COUNT(e) FROM Student AS e WHERE e.code = :" + JPQL_PARM_CODE;
- 
+
+    //全ての学生の更新日時の最大値と件数(学生件数テーブルの値)を取得する(一覧画面の条件付きGETに使用する)
+    String Q_STU_GET_LIST_VALIDATOR = ENTITY_STU + ".getListValidator";
+    String Q_STU_GET_LIST_VALIDATOR_DEF = "SELECT MAX(e.updatedAt), (SELECT c.value FROM StudentCounter AS c WHERE c.name = :" + JPQL_PARM_NAME + ") FROM Student AS e";
+    //指定したidの未削除の学生の更新日時を取得する(詳細画面の条件付きGETに使用する)
+    String Q_STU_GET_UPDATED_AT = ENTITY_STU + ".getUpdatedAt";
+    String Q_STU_GET_UPDATED_AT_DEF = "SELECT e.updatedAt FROM Student AS e WHERE e.deleteFlag = 0 AND e.id = :" + JPQL_PARM_ID;
+
+    //学生を1件登録する(一括登録でJDBCバッチとして実行するSQL)
+    String SQL_STU_INSERT = "INSERT INTO " + TABLE_STU + " ("
+            + STU_COL_CODE + ", " + STU_COL_NAME + ", " + STU_COL_PASS + ", " + STU_COL_ADMIN_FLAG + ", "
+            + STU_COL_CREATED_AT + ", " + STU_COL_UPDATED_AT + ", " + STU_COL_DELETE_FLAG
+            + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    //指定した種類の学生件数を取得する
+    String Q_CNT_GET_VALUE = ENTITY_CNT + ".getValue";
+    String Q_CNT_GET_VALUE_DEF = "SELECT c.value FROM StudentCounter AS c WHERE c.name = :" + JPQL_PARM_NAME;
+    //指定した種類の学生件数に増減値を加算する
+    String Q_CNT_ADD = ENTITY_CNT + ".add";
+    String Q_CNT_ADD_DEF = "UPDATE StudentCounter AS c SET c.value = c.value + :" + JPQL_PARM_DELTA + " WHERE c.name = :" + JPQL_PARM_NAME;
+
 }
@@ -9,18 +9,28 @@ public enum MessageConst {
     //認証
     I_LOGINED("ログインしました"),
     E_LOGINED("ログインに失敗しました。"),
+    E_LOGIN_THROTTLED("ログインの試行回数が多すぎます。しばらくしてから再度お試しください。"),
+    E_HASH_BUSY("ただいま混雑しています。しばらくしてから再度お試しください。"),
     I_LOGOUT("ログアウトしました。"),
 
     //DB更新
     I_REGISTERED("登録が完了しました。"),
     I_UPDATED("更新が完了しました。"),
     I_DELETED("削除が完了しました。"),
+    I_IMPORTED("一括登録が完了しました。"),
 
     //バリデーション
     E_NONAME("氏名を入力してください。"),
     E_NOPASSWORD("パスワードを入力してください。"),
     E_NOSTU_CODE("IDを入力してください。"),
-    E_STU_CODE_EXIST("入力された社員番号の情報は既に存在しています。");
+    E_STU_CODE_EXIST("入力された社員番号の情報は既に存在しています。"),
+
+    //一括登録
+    E_IMPORT_NOFILE("CSVファイルを選択してください。"),
+    E_IMPORT_COLUMNS("列の数が不正です。(番号,氏名,パスワード,権限)"),
+    E_INVALID_ROLE("権限は0(一般)または1(管理者)を指定してください。"),
+    E_STU_CODE_DUPLICATE_IN_FILE("ファイル内で番号が重複しています。"),
+    E_IMPORT_FAILED("登録に失敗しました。");
 
     /**
      * 文字列
@@ -0,0 +1,30 @@
+package constants;
+
+/**
+ * 計測値の記録・出力に関わる設定値を定義するインターフェース
+ * ※インターフェイスに定義した変数は public static final 修飾子がついているとみなされる
+ */
+public interface MetricsConst {
+
+    //Prometheus形式で出力する際のContent-Type
+    String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    //出力する計測値の名前の接頭辞
+    String METRIC_PREFIX = "daily_report_";
+    //処理時間のヒストグラムを出力する際のバケットの上限値(秒)
+    //実際にはこの値以下で最も大きいLatencyHistogramのバケット境界をleとして出力する
+    double[] LATENCY_BUCKETS_SECONDS = {
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+    //登録されていないactionの計測値を記録する名前
+    String ROUTE_UNKNOWN_ACTION = "Unknown";
+    //登録されていないcommandの計測値を記録する名前
+    String ROUTE_UNKNOWN_COMMAND = "unknown";
+    //1リクエストで実行するSQLの件数の上限(application.propertiesのstatement.budgetで変更できる)
+    int STATEMENT_BUDGET_DEFAULT = 10;
+    //1リクエストで同じSQLをこの回数以上実行した場合、N+1問題の疑いとしてログに印を付ける
+    int STATEMENT_REPEAT_THRESHOLD = 5;
+    //1リクエストで記録するSQLの種類の上限
+    int STATEMENT_COUNTER_MAX_NAMES = 50;
+    //実行したSQLの件数を出力するレスポンスヘッダ(statement.headerがtrueの場合のみ)
+    String STATEMENT_COUNT_HEADER = "X-Statement-Count";
+
+}
@@ -7,7 +7,19 @@ package constants;
 public enum PropertyConst {
 
     //ペッパー文字列
-    PEPPER("pepper");
+    PEPPER("pepper"),
+    //認証方式(session: HttpSession token: 署名付きCookie)
+    AUTH_MODE("auth.mode"),
+    //署名付きCookieの署名に使用する秘密鍵
+    AUTH_SECRET("auth.secret"),
+    //信頼するプロキシ(ロードバランサ等)のアドレス(カンマ区切り) これらからの接続に限りX-Forwarded-Forを接続元とする
+    TRUSTED_PROXIES("trusted.proxies"),
+    //1リクエストで実行するSQLの件数の上限
+    STATEMENT_BUDGET("statement.budget"),
+    //実行したSQLの件数をレスポンスヘッダに出力するかどうか(true: 出力する テスト・負荷試験用)
+    STATEMENT_HEADER("statement.header"),
+    //静的ファイルのパスとフィンガープリント付きURLの対応表(AssetServletが設定する)
+    ASSETS("assets");
 
     private final String text;
     private PropertyConst(final String text) {
@@ -0,0 +1,49 @@
+package constants;
+
+/**
+ * パスワードのハッシュ化等、認証に関わる設定値を定義するインターフェース
+ * ※インターフェイスに定義した変数は public static final 修飾子がついているとみなされる
+ */
+public interface SecurityConst {
+
+    //パスワードのハッシュ化(PBKDF2)
+    String HASH_ALGORITHM = "PBKDF2WithHmacSHA256"; //アルゴリズム
+    String HASH_PREFIX = "pbkdf2"; //保存形式の接頭辞(pbkdf2$反復回数$ソルト$ハッシュ値)
+    int HASH_ITERATIONS = 100000; //反復回数
+    int HASH_SALT_BYTES = 16; //ソルトの長さ(バイト)
+    int HASH_KEY_BITS = 256; //ハッシュ値の長さ(ビット)
+
+    //ハッシュ化専用のスレッドプール
+    int HASH_POOL_SIZE = Math.max(1, Runtime.getRuntime().availableProcessors() / 2); //スレッド数
+    int HASH_QUEUE_CAPACITY = 64; //待ち行列の上限(超えた場合は即座に拒否する)
+    long HASH_WAIT_TIMEOUT_MILLIS = 5000; //ハッシュ化の完了を待つ最大時間(ミリ秒)
+    int HASH_BULK_MAX_CONCURRENCY = Math.max(1, HASH_POOL_SIZE / 2); //一括処理(CSVの取込)が同時に使用するスレッド数の上限(残りはログイン用に空けておく)
+    long HASH_BULK_RETRY_MILLIS = 50; //一括処理で待ち行列が埋まっていた場合に再試行するまでの時間(ミリ秒)
+
+    //ログイン試行回数の制限(トークンバケット) 認証に失敗した試行のみを数える
+    int THROTTLE_CODE_ADDR_CAPACITY = 5; //学生番号と接続元アドレスの組毎に連続して試行できる回数
+    long THROTTLE_CODE_ADDR_REFILL_NANOS = 60_000_000_000L; //学生番号と接続元アドレスの組毎に試行回数が1回分回復するまでの時間(ナノ秒)
+    int THROTTLE_CODE_CAPACITY = 100; //学生番号毎に連続して試行できる回数(多数のアドレスからの試行に対する上限)
+    long THROTTLE_CODE_REFILL_NANOS = 10_000_000_000L; //学生番号毎に試行回数が1回分回復するまでの時間(ナノ秒)
+    int THROTTLE_ADDR_CAPACITY = 200; //接続元アドレス毎に連続して試行できる回数(NAT等で多数の学生が共有する場合を想定する)
+    long THROTTLE_ADDR_REFILL_NANOS = 1_000_000_000L; //接続元アドレス毎に試行回数が1回分回復するまでの時間(ナノ秒)
+    int THROTTLE_MAX_KEYS = 100000; //保持するバケット数の上限(制限の種類毎)
+    int THROTTLE_HARD_MAX_KEYS = 200000; //全てのバケットが制限中で削除できない場合でも超えないバケット数(制限の種類毎)
+    int THROTTLE_KEY_MAX_LENGTH = 64; //キーに使用する学生番号・接続元アドレスの最大文字数(超える場合はハッシュ値とする)
+    double THROTTLE_EVICT_RATIO = 0.1; //上限に達した場合に削除するバケットの割合(最後に使用した順)
+    long THROTTLE_SWEEP_INTERVAL_NANOS = 60_000_000_000L; //満タンまで回復したバケットを削除する間隔(ナノ秒)
+
+    //署名付きCookieによる認証(セッションを使用しない認証方式)
+    String AUTH_MODE_SESSION = "session"; //認証方式: HttpSessionにログイン中の学生を保持する(既定)
+    String AUTH_MODE_TOKEN = "token"; //認証方式: 署名付きCookieにログイン中の学生を保持する
+    String AUTH_HMAC_ALGORITHM = "HmacSHA256"; //署名のアルゴリズム
+    int AUTH_SECRET_MIN_LENGTH = 32; //秘密鍵の最小の長さ(満たない場合はセッション方式で動作する)
+    String AUTH_COOKIE_NAME = "auth_token"; //ログイン中の学生を保持するCookie名
+    String CSRF_COOKIE_NAME = "csrf_seed"; //CSRF対策用tokenの元となる値を保持するCookie名
+    int CSRF_SEED_BYTES = 16; //CSRF対策用tokenの元となる値の長さ(バイト)
+    String FLASH_COOKIE_NAME = "flash"; //署名付きCookie方式でフラッシュメッセージ(の種類)を次の画面に渡すCookie名
+    long FLASH_COOKIE_MAX_AGE_SECONDS = 60; //フラッシュメッセージのCookieの有効期間(秒) リダイレクト先の画面で読み込んだ時点で削除する
+    long AUTH_TOKEN_TTL_SECONDS = 8 * 60 * 60; //署名付きCookieの有効期間(秒)
+    long AUTH_VERSION_CACHE_NANOS = 30_000_000_000L; //失効確認用のバージョンをメモリに保持する時間(ナノ秒) 他のノードでの失効はこの時間内に反映される
+
+}
@@ -0,0 +1,242 @@
+package controllers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import constants.AssetConst;
+import constants.PropertyConst;
+
+/**
+ * 静的ファイルをフィンガープリント付きのURLでメモリから配信するサーブレット
+ * 起動時に対象フォルダのファイルを読み込み、内容のハッシュ値をファイル名に付加したURL(例: /assets/css/style.1a2b3c4d5e6f.css)を作成する
+ * URLは内容毎に変わるため、ブラウザには変更されないもの(immutable)として長期間キャッシュさせる
+ * 認証を必要としないため、LoginFilterの対象外とする
+ */
+@WebServlet(urlPatterns = AssetConst.ASSET_URL_PREFIX + "/*", loadOnStartup = 1)
+public class AssetServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 配信する静的ファイル1件分の内容
+     */
+    private static class Asset {
+        final byte[] body;
+        final byte[] gzipBody;
+        final String contentType;
+        final String etag;
+        final String gzipEtag;
+
+        Asset(byte[] body, byte[] gzipBody, String contentType, String hash) {
+            this.body = body;
+            this.gzipBody = gzipBody;
+            this.contentType = contentType;
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gz\"";
+        }
+    }
+
+    /**
+     * フィンガープリント付きのパス(例: /css/style.1a2b3c4d5e6f.css)と内容の対応表
+     */
+    private Map<String, Asset> assets = Collections.emptyMap();
+
+    public AssetServlet() {
+        super();
+    }
+
+    /**
+     * 対象フォルダの静的ファイルを読み込み、フィンガープリント付きURLの対応表をアプリケーションスコープに設定する
+     * @see HttpServlet#init()
+     */
+    @Override
+    public void init() throws ServletException {
+        Map<String, Asset> loaded = new HashMap<>();
+        Map<String, String> urls = new HashMap<>();
+
+        for (String dir : AssetConst.ASSET_DIRS) {
+            Set<String> paths = getServletContext().getResourcePaths(dir);
+            if (paths == null) {
+                continue;
+            }
+            for (String path : paths) {
+                if (path.endsWith("/")) {
+                    //サブフォルダは対象外
+                    continue;
+                }
+                try {
+                    byte[] body = read(path);
+                    String hash = hash(body);
+                    String fingerprinted = fingerprint(path, hash);
+
+                    loaded.put(fingerprinted, new Asset(
+                            body,
+                            gzip(body),
+                            getServletContext().getMimeType(path),
+                            hash));
+                    urls.put(path, AssetConst.ASSET_URL_PREFIX + fingerprinted);
+                    log("asset: " + path + " -> " + AssetConst.ASSET_URL_PREFIX + fingerprinted);
+
+                } catch (IOException e) {
+                    //読み込めないファイルは元のパスのまま(デフォルトサーブレットで配信)とする
+                    e.printStackTrace();
+                    urls.put(path, path);
+                }
+            }
+        }
+
+        assets = Collections.unmodifiableMap(loaded);
+        getServletContext().setAttribute(PropertyConst.ASSETS.getValue(), Collections.unmodifiableMap(urls));
+    }
+
+    /**
+     * フィンガープリント付きのパスに該当する静的ファイルを返却する
+     * @see HttpServlet#doGet(HttpServletRequest request, HttpServletResponse response)
+     */
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        String path = request.getPathInfo();
+        Asset asset = path == null ? null : assets.get(path);
+        if (asset == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        //gzip圧縮した内容は別の表現のため、強いETagも別の値とする
+        boolean gzip = asset.gzipBody != null && acceptsGzip(request);
+        String etag = gzip ? asset.gzipEtag : asset.etag;
+
+        response.setHeader("Cache-Control", "public, max-age=" + AssetConst.ASSET_MAX_AGE_SECONDS + ", immutable");
+        response.setHeader("ETag", etag);
+        response.setHeader("Vary", "Accept-Encoding");
+
+        //内容はURL毎に不変のため、ETagが一致すれば本文を返却しない
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (asset.contentType != null) {
+            response.setContentType(asset.contentType);
+        }
+
+        byte[] body = asset.body;
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            body = asset.gzipBody;
+        }
+        response.setContentLength(body.length);
+
+        if (!"HEAD".equals(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+
+    /**
+     * リクエストがgzip圧縮した内容を受け付けるかどうか
+     * @param request リクエスト
+     * @return true: 受け付ける false: 受け付けない
+     */
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader("Accept-Encoding");
+        if (accept == null) {
+            return false;
+        }
+        for (String token : accept.split(",")) {
+            String[] parts = token.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                //q=0 が指定されている場合は受け付けない
+                return !(parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?"));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Webアプリケーション内のファイルを読み込む
+     * @param path ファイルのパス
+     * @return ファイルの内容
+     * @throws IOException
+     */
+    private byte[] read(String path) throws IOException {
+        try (InputStream is = getServletContext().getResourceAsStream(path)) {
+            if (is == null) {
+                throw new IOException("resource not found: " + path);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = is.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 内容をgzip圧縮する
+     * @param body 内容
+     * @return 圧縮した内容 小さいファイルまたは圧縮しても小さくならない場合null
+     * @throws IOException
+     */
+    private static byte[] gzip(byte[] body) throws IOException {
+        if (body.length < AssetConst.ASSET_GZIP_MIN_BYTES) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        }
+        byte[] compressed = out.toByteArray();
+        return compressed.length < body.length ? compressed : null;
+    }
+
+    /**
+     * 内容のハッシュ値(SHA-256の16進表記の先頭)を求める
+     * @param body 内容
+     * @return ハッシュ値
+     */
+    private static String hash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.substring(0, AssetConst.ASSET_HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            //SHA-256は全てのJava実行環境で利用できるため通常は発生しない
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * パスの拡張子の前にハッシュ値を付加する(例: /css/style.css → /css/style.1a2b3c4d5e6f.css)
+     * @param path パス
+     * @param hash ハッシュ値
+     * @return フィンガープリント付きのパス
+     */
+    private static String fingerprint(String path, String hash) {
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        if (dot <= slash) {
+            return path + "." + hash;
+        }
+        return path.substring(0, dot) + "." + hash + path.substring(dot);
+    }
+}
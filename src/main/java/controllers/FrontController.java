@@ -1,30 +1,72 @@
 package controllers;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 
 import javax.servlet.ServletException;
+import javax.servlet.annotation.MultipartConfig;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import actions.ActionBase;
+import actions.ActionRegistry;
 import actions.UnknownAction;
 import constants.ForwardConst;
+import constants.MetricsConst;
+import constants.PropertyConst;
+import utils.RequestMetrics;
+import utils.StatementCounter;
 
 /**
  * フロントコントローラ
  *
  */
-@WebServlet("/")
+@WebServlet(name = "FrontController", urlPatterns = "/")
+@MultipartConfig(fileSizeThreshold = 1024 * 1024, maxFileSize = 50 * 1024 * 1024, maxRequestSize = 50 * 1024 * 1024)
 public class FrontController extends HttpServlet {
     private static final long serialVersionUID = 1L;
 
+    //1リクエストで実行するSQLの件数の上限
+    private int statementBudget = MetricsConst.STATEMENT_BUDGET_DEFAULT;
+
+    //実行したSQLの件数をレスポンスヘッダに出力するかどうか
+    private boolean statementHeader;
+
     public FrontController() {
         super();
     }
 
+    /**
+     * サーブレットの初期化時にaction/commandの対応表を作成し、登録内容をログに出力する
+     * @see HttpServlet#init()
+     */
+    @Override
+    public void init() throws ServletException {
+        ActionRegistry registry = ActionRegistry.getInstance();
+        for (String route : registry.getRoutes()) {
+            log("route: " + route);
+        }
+
+        //登録済みのaction/command毎に計測値の記録を開始する
+        RequestMetrics.register(registry.getRoutes());
+
+        //SQLの件数の上限をプロパティファイルから取得する(設定がない場合は既定値)
+        Object budget = getServletContext().getAttribute(PropertyConst.STATEMENT_BUDGET.getValue());
+        if (budget != null) {
+            try {
+                statementBudget = Integer.parseInt(budget.toString().trim());
+            } catch (NumberFormatException e) {
+                e.printStackTrace();
+            }
+        }
+        log("statement budget: " + statementBudget);
+
+        //SQLの件数をレスポンスヘッダに出力するかどうかをプロパティファイルから取得する(設定がない場合は出力しない)
+        Object header = getServletContext().getAttribute(PropertyConst.STATEMENT_HEADER.getValue());
+        statementHeader = header != null && Boolean.parseBoolean(header.toString().trim());
+    }
+
     /**
      * @see HttpServlet#doGet(HttpServletRequest request, HttpServletResponse response)
      */
@@ -37,8 +79,29 @@ public class FrontController extends HttpServlet {
         //サーブレットコンテキスト、リクエスト、レスポンスをActionインスタンスのフィールドに設定
         action.init(getServletContext(), request, response);
 
-        //Actionクラスの処理を呼び出し
-        action.process();
+        //action/command毎に処理時間・処理中の件数・例外の件数・ステータスコードを記録する
+        RequestMetrics.Route route = getRoute(action, request);
+        long start = RequestMetrics.begin(route);
+        boolean error = true;
+
+        //リクエスト中に実行したSQLを数え、上限を超えた場合はログに出力する
+        StatementCounter.Scope statements = StatementCounter.open(
+                route.getAction() + "/" + route.getCommand(), statementBudget);
+        try {
+            //Actionクラスの処理を呼び出し
+            action.process();
+            error = false;
+        } finally {
+            statements.close();
+            if (statementHeader && !response.isCommitted()) {
+                //テストから件数を検証できるよう出力する(画面の出力等で既にレスポンスが確定している場合は出力できない)
+                response.setIntHeader(MetricsConst.STATEMENT_COUNT_HEADER, statements.getCount());
+            }
+            RequestMetrics.recordStatements(route, statements);
+            RequestMetrics.end(route, start,
+                    error ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+                    error);
+        }
     }
 
 
@@ -50,33 +113,38 @@ public class FrontController extends HttpServlet {
         doGet(request, response);
     }
 
+    /**
+     * リクエストの計測値を記録するaction/commandを取得する
+     * 登録されていないaction/commandはまとめて記録する
+     * @param action 実行するActionクラスのインスタンス
+     * @param request リクエスト
+     * @return 計測値
+     */
+    private RequestMetrics.Route getRoute(ActionBase action, HttpServletRequest request) {
+        if (action instanceof UnknownAction) {
+            return RequestMetrics.get(null, null);
+        }
+        return RequestMetrics.get(
+                request.getParameter(ForwardConst.ACT.getValue()),
+                request.getParameter(ForwardConst.CMD.getValue()));
+    }
+
     /**
      * リクエストパラメータの値から該当するActionクラスのインスタンスを作成し、返却する
-     * (例:パラメータが action=Employee の場合、actions.EmployeeActionオブジェクト)
+     * (例:パラメータが action=Student の場合、actions.StudentActionオブジェクト)
      * @param request リクエスト
      * @param response レスポンス
      * @return
      */
-    @SuppressWarnings({ "rawtypes", "unchecked" }) //コンパイラ警告を抑制
     private ActionBase getAction(HttpServletRequest request, HttpServletResponse response) {
-        Class type = null;
-        ActionBase action = null;
-        try {
-
-            //リクエストからパラメータ"action"の値を取得 (
-            String actionString = request.getParameter(ForwardConst.ACT.getValue());
-
-            //該当するActionオブジェクトを作成 
-            type = Class.forName(String.format("actions.%sAction", actionString));
 
-            //ActionBaseのオブジェクトにキャスト(例:actions.EmployeeActionオブジェクト→actions.ActionBaseオブジェクト)
-            action = (ActionBase) (type.asSubclass(ActionBase.class)
-                    .getDeclaredConstructor()
-                    .newInstance());
+        //リクエストからパラメータ"action"の値を取得
+        String actionString = request.getParameter(ForwardConst.ACT.getValue());
 
-        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | SecurityException
-                | IllegalArgumentException | InvocationTargetException| NoSuchMethodException e) {
+        //起動時に作成した対応表から該当するActionオブジェクトを作成
+        ActionBase action = ActionRegistry.getInstance().newAction(actionString);
 
+        if (action == null) {
             //リクエストパラメータに設定されている"action"の値が不正の場合(例:action=xxxxx 等、該当するActionクラスがない場合)
             //エラー処理を行うActionオブジェクトを作成
             action = new UnknownAction();
@@ -85,4 +153,3 @@ public class FrontController extends HttpServlet {
     }
 
 }
-    
\ No newline at end of file
@@ -0,0 +1,123 @@
+package filters;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import constants.CompressionConst;
+
+/**
+ * Servlet Filter implementation class CompressionFilter
+ * フロントコントローラのレスポンス(JSPで作成したHTML、CSV出力等)をAccept-Encodingに応じてgzipまたはdeflateで圧縮する
+ * 静的ファイルはAssetServletが圧縮済みの内容を返却するため対象外とする
+ */
+@WebFilter(servletNames = "FrontController")
+public class CompressionFilter implements Filter {
+
+    /**
+     * Default constructor.
+     */
+    public CompressionFilter() {
+
+    }
+
+    /**
+     * @see Filter#destroy()
+     */
+    public void destroy() {
+
+    }
+
+    /**
+     * @see Filter#doFilter(ServletRequest, ServletResponse, FilterChain)
+     */
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        HttpServletResponse res = (HttpServletResponse) response;
+
+        String encoding = "HEAD".equals(req.getMethod()) ? null : negotiate(req.getHeader("Accept-Encoding"));
+        if (encoding == null) {
+            //圧縮を受け付けないクライアントはそのまま処理する
+            chain.doFilter(request, response);
+            return;
+        }
+
+        //Accept-Encodingによって内容が変わることをキャッシュに伝える
+        res.addHeader("Vary", "Accept-Encoding");
+
+        CompressionResponseWrapper wrapper = new CompressionResponseWrapper(res, encoding);
+        try {
+            chain.doFilter(request, wrapper);
+            wrapper.finish();
+        } finally {
+            //画面の作成中に例外が発生した場合も、Deflaterをプールに返却する
+            //(保持していた本文は出力しないため、未確定のレスポンスはコンテナがエラー画面に置き換えられる)
+            wrapper.release();
+        }
+    }
+
+    /**
+     * @see Filter#init(FilterConfig)
+     */
+    public void init(FilterConfig fConfig) throws ServletException {
+
+    }
+
+    /**
+     * Accept-Encodingから使用する圧縮方式を決める(q値が高いものを優先し、同じ場合はgzipを優先する)
+     * @param acceptEncoding Accept-Encodingヘッダの値
+     * @return 圧縮方式 圧縮しない場合null
+     */
+    private static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+
+        double gzip = 0;
+        double deflate = 0;
+        double any = -1;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String name = parts[0].trim().toLowerCase();
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals(CompressionConst.ENCODING_GZIP)) {
+                gzip = q;
+            } else if (name.equals(CompressionConst.ENCODING_DEFLATE)) {
+                deflate = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+
+        //個別に指定されていない方式は「*」のq値に従う
+        if (any > 0 && !acceptEncoding.toLowerCase().contains(CompressionConst.ENCODING_GZIP)) {
+            gzip = any;
+        }
+
+        if (gzip > 0 && gzip >= deflate) {
+            return CompressionConst.ENCODING_GZIP;
+        }
+        if (deflate > 0) {
+            return CompressionConst.ENCODING_DEFLATE;
+        }
+        return null;
+    }
+}
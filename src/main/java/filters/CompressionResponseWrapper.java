@@ -0,0 +1,388 @@
+package filters;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import constants.CompressionConst;
+import utils.CompressionMetrics;
+import utils.DeflaterPool;
+
+/**
+ * レスポンスの本文を圧縮しながら出力するラッパー
+ * 最初のCOMPRESS_MIN_BYTESバイトだけを保持し、それを超えた時点または明示的にフラッシュされた時点で圧縮するかどうかを決める
+ * 圧縮する場合は以降の本文を作業領域の大きさ毎に圧縮して出力するため、レスポンス全体を保持しない
+ */
+public class CompressionResponseWrapper extends HttpServletResponseWrapper {
+
+    //gzip形式のヘッダ(圧縮方式deflate、フラグ・更新日時なし、OS不明)
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    /**
+     * 使用する圧縮方式(gzipまたはdeflate)
+     */
+    private final String encoding;
+
+    /**
+     * 本文の出力先
+     */
+    private CompressingOutputStream stream;
+
+    /**
+     * getWriterで返却したWriter
+     */
+    private PrintWriter writer;
+
+    /**
+     * 呼び出し元が設定したContent-Length(圧縮しない場合のみ設定する)
+     */
+    private long contentLength = -1;
+
+    /**
+     * コンストラクタ
+     * @param response 元のレスポンス
+     * @param encoding 使用する圧縮方式
+     */
+    public CompressionResponseWrapper(HttpServletResponse response, String encoding) {
+        super(response);
+        this.encoding = encoding;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        return stream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        contentLength = len;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        contentLength = len;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (stream != null) {
+            stream.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        resetStream();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        resetStream();
+    }
+
+    /**
+     * 本文の出力を完了する(圧縮した場合はトレーラを出力し、Deflaterをプールに返却する)
+     * @throws IOException
+     */
+    public void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (stream != null) {
+            stream.finish();
+        }
+    }
+
+    /**
+     * Deflaterをプールに返却し、以降の出力を受け付けない(出力を完了した場合は返却済みのため何もしない)
+     * 例外等でfinishを呼び出さずに終了する場合に使用する
+     */
+    public void release() {
+        if (stream != null) {
+            stream.discard();
+        }
+    }
+
+    private CompressingOutputStream stream() throws IOException {
+        if (stream == null) {
+            stream = new CompressingOutputStream();
+        }
+        return stream;
+    }
+
+    //出力前の本文を破棄する(出力開始後は元のレスポンスがIllegalStateExceptionを送出する)
+    private void resetStream() {
+        if (stream != null) {
+            stream.discard();
+        }
+        stream = null;
+        writer = null;
+        contentLength = -1;
+    }
+
+    /**
+     * 圧縮するかどうかを決めた後、本文を圧縮してまたはそのまま元のレスポンスに出力するストリーム
+     */
+    private class CompressingOutputStream extends ServletOutputStream {
+
+        //圧縮するかどうかを決めるまで保持する本文
+        private byte[] pending = new byte[CompressionConst.COMPRESS_MIN_BYTES];
+        private int pendingLength = 0;
+
+        //元のレスポンスの出力先 決定前はnull
+        private ServletOutputStream out;
+
+        //圧縮する場合のDeflater 圧縮しない場合null
+        private Deflater deflater;
+        private boolean nowrap;
+        private CRC32 crc;
+        private byte[] buffer;
+
+        //圧縮前・後のバイト数と圧縮に使用したCPU時間
+        private long bytesIn;
+        private long bytesOut;
+        private long cpuNanos;
+
+        private boolean finished;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (finished) {
+                throw new IOException("response has already been finished");
+            }
+            if (out == null) {
+                if (pendingLength + len <= pending.length) {
+                    System.arraycopy(b, off, pending, pendingLength, len);
+                    pendingLength += len;
+                    return;
+                }
+                //保持できる大きさを超えたため圧縮するかどうかを決める
+                start(true);
+            }
+            if (deflater == null) {
+                out.write(b, off, len);
+            } else {
+                deflate(b, off, len, Deflater.NO_FLUSH);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out == null) {
+                //途中で明示的にフラッシュされた場合(レイアウトによるheadの先行送信等)は後続の本文があるとみなし、
+                //大きさに関わらずその時点で決める
+                if (pendingLength == 0) {
+                    return;
+                }
+                start(true);
+            }
+            if (deflater != null) {
+                //ここまでの本文をクライアントが展開できるよう同期フラッシュする
+                deflate(new byte[0], 0, 0, Deflater.SYNC_FLUSH);
+            }
+            out.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        /**
+         * ノンブロッキング出力は非同期処理のリクエストでのみ使用できるが、
+         * 圧縮するフロントコントローラは非同期処理に対応していないため、Servletの仕様どおりIllegalStateExceptionを送出する
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (writeListener == null) {
+                throw new NullPointerException("writeListener");
+            }
+            throw new IllegalStateException("non-blocking output requires async processing, which is not enabled");
+        }
+
+        /**
+         * 圧縮するかどうかを決め、保持していた本文を出力する
+         * @param large 本文が圧縮する最小のサイズ以上かどうか
+         * @throws IOException
+         */
+        private void start(boolean large) throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+
+            boolean compress = false;
+            if (!large) {
+                CompressionMetrics.recordSkippedSmall();
+            } else if (response.containsHeader("Content-Encoding") || !isCompressible(response.getContentType())) {
+                CompressionMetrics.recordSkippedType();
+            } else {
+                compress = true;
+            }
+
+            if (compress) {
+                response.setHeader("Content-Encoding", encoding);
+                nowrap = CompressionConst.ENCODING_GZIP.equals(encoding);
+                deflater = DeflaterPool.borrow(nowrap);
+                buffer = new byte[CompressionConst.COMPRESS_BUFFER_BYTES];
+                out = response.getOutputStream();
+                if (nowrap) {
+                    crc = new CRC32();
+                    out.write(GZIP_HEADER);
+                    bytesOut += GZIP_HEADER.length;
+                }
+                deflate(pending, 0, pendingLength, Deflater.NO_FLUSH);
+            } else {
+                if (contentLength >= 0) {
+                    response.setContentLengthLong(contentLength);
+                }
+                out = response.getOutputStream();
+                out.write(pending, 0, pendingLength);
+            }
+            pending = null;
+        }
+
+        /**
+         * 本文を圧縮して出力する
+         * @param b 本文
+         * @param off 開始位置
+         * @param len 長さ
+         * @param flush Deflaterのフラッシュ方法
+         * @throws IOException
+         */
+        private void deflate(byte[] b, int off, int len, int flush) throws IOException {
+            long start = CompressionMetrics.cpuTime();
+            if (crc != null) {
+                crc.update(b, off, len);
+            }
+            bytesIn += len;
+            deflater.setInput(b, off, len);
+            if (flush == Deflater.NO_FLUSH) {
+                //入力を全てDeflaterに渡すまで、圧縮できた分を出力する
+                while (!deflater.needsInput()) {
+                    int n = deflater.deflate(buffer, 0, buffer.length, flush);
+                    out.write(buffer, 0, n);
+                    bytesOut += n;
+                }
+            } else {
+                //作業領域が一杯にならなくなるまで出力する
+                int n;
+                do {
+                    n = deflater.deflate(buffer, 0, buffer.length, flush);
+                    out.write(buffer, 0, n);
+                    bytesOut += n;
+                } while (n == buffer.length);
+            }
+            cpuNanos += CompressionMetrics.cpuTime() - start;
+        }
+
+        /**
+         * 本文の出力を完了する
+         * @throws IOException
+         */
+        private void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+
+            if (out == null) {
+                //全体が小さいため圧縮しない
+                if (pendingLength == 0) {
+                    return;
+                }
+                start(false);
+                return;
+            }
+
+            if (deflater != null) {
+                try {
+                    long start = CompressionMetrics.cpuTime();
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        int n = deflater.deflate(buffer, 0, buffer.length);
+                        out.write(buffer, 0, n);
+                        bytesOut += n;
+                    }
+                    cpuNanos += CompressionMetrics.cpuTime() - start;
+
+                    if (nowrap) {
+                        //gzip形式のトレーラ(CRC32と圧縮前のサイズ リトルエンディアン)
+                        writeIntLE(crc.getValue());
+                        writeIntLE(bytesIn);
+                        bytesOut += 8;
+                    }
+                    CompressionMetrics.recordCompressed(bytesIn, bytesOut, cpuNanos);
+                } finally {
+                    releaseDeflater();
+                }
+            }
+        }
+
+        //出力前の本文を破棄する
+        private void discard() {
+            finished = true;
+            releaseDeflater();
+        }
+
+        private void releaseDeflater() {
+            if (deflater != null) {
+                DeflaterPool.release(deflater, nowrap);
+                deflater = null;
+            }
+        }
+
+        private void writeIntLE(long v) throws IOException {
+            out.write((int) (v & 0xff));
+            out.write((int) ((v >>> 8) & 0xff));
+            out.write((int) ((v >>> 16) & 0xff));
+            out.write((int) ((v >>> 24) & 0xff));
+        }
+    }
+
+    /**
+     * 圧縮の対象とするContent-Typeかどうか
+     * @param contentType Content-Type
+     * @return true: 対象 false: 対象外
+     */
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        for (String prefix : CompressionConst.COMPRESSIBLE_TYPES) {
+            if (type.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -6,6 +6,7 @@ import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
 import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
@@ -17,13 +18,21 @@ import javax.servlet.http.HttpSession;
 import actions.views.StudentView;
 import constants.AttributeConst;
 import constants.ForwardConst;
+import constants.SecurityConst;
+import services.StudentService;
+import utils.AuthToken;
+import utils.CookieUtil;
+import utils.TokenVersionCache;
 
 /**
  * Servlet Filter implementation class LoginFilter
+ * フロントコントローラへのリクエストのみを対象とし、静的ファイル(CSS等)は認証処理を行わない
  */
-@WebFilter("/*")
+@WebFilter(servletNames = "FrontController")
 public class LoginFilter implements Filter {
 
+    private ServletContext context;
+
     /**
      * Default constructor.
      */
@@ -42,75 +51,119 @@ public class LoginFilter implements Filter {
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         String contextPath = ((HttpServletRequest) request).getContextPath();
-        String servletPath = ((HttpServletRequest) request).getServletPath();
 
-        if (servletPath.matches("/css.*")) {
-            // CSSフォルダ内は認証処理から除外する
-            chain.doFilter(request, response);
+        //クエリパラメータからactionとcommandを取得
+        String action = request.getParameter(ForwardConst.ACT.getValue());
+        String command = request.getParameter(ForwardConst.CMD.getValue());
 
+        StudentView sv;
+        if (AuthToken.isEnabled(context)) {
+            //署名付きCookieからログインしている学生の情報を取得し、リクエストスコープに設定する
+            sv = getTokenStudent((HttpServletRequest) request, (HttpServletResponse) response);
+            if (sv != null) {
+                request.setAttribute(AttributeConst.LOGIN_STU.getValue(), sv);
+            }
         } else {
+            //セッションからログインしている従業員の情報を取得
             HttpSession session = ((HttpServletRequest) request).getSession();
+            sv = (StudentView) session.getAttribute(AttributeConst.LOGIN_STU.getValue());
+            if (sv != null) {
+                //画面(JSP)はセッションを参照しないため、リクエストスコープにも設定する
+                request.setAttribute(AttributeConst.LOGIN_STU.getValue(), sv);
+            }
+        }
 
-            //クエリパラメータからactionとcommandを取得
-            String action = request.getParameter(ForwardConst.ACT.getValue());
-            String command = request.getParameter(ForwardConst.CMD.getValue());
+        if (sv == null) {
+            //未ログイン
 
-            //セッションからログインしている従業員の情報を取得
-            StudentView sv = (StudentView) session.getAttribute(AttributeConst.LOGIN_STU.getValue());
+            if (!(ForwardConst.ACT_AUTH.getValue().equals(action)
+                    && (ForwardConst.CMD_SHOW_LOGIN.getValue().equals(command)
+                            || ForwardConst.CMD_LOGIN.getValue().equals(command)))) {
 
-            if (sv == null) {
-                //未ログイン
+                //ログインページの表示またはログイン実行以外はログインページにリダイレクト
+                ((HttpServletResponse) response).sendRedirect(
+                        contextPath
+                                + "?action=" + ForwardConst.ACT_AUTH.getValue()
+                                + "&command=" + ForwardConst.CMD_SHOW_LOGIN.getValue());
+                return;
+            }
+        } else {
+            //ログイン済
 
-                if (!(ForwardConst.ACT_AUTH.getValue().equals(action)
-                        && (ForwardConst.CMD_SHOW_LOGIN.getValue().equals(command)
-                                || ForwardConst.CMD_LOGIN.getValue().equals(command)))) {
+            if (ForwardConst.ACT_AUTH.getValue().equals(action)) {
+                //認証系Actionを行おうとしている場合
 
-                    //ログインページの表示またはログイン実行以外はログインページにリダイレクト
+                if (ForwardConst.CMD_SHOW_LOGIN.getValue().equals(command)) {
+                    //ログインページの表示はトップ画面にリダイレクト
                     ((HttpServletResponse) response).sendRedirect(
                             contextPath
-                                    + "?action=" + ForwardConst.ACT_AUTH.getValue()
-                                    + "&command=" + ForwardConst.CMD_SHOW_LOGIN.getValue());
+                                    + "?action=" + ForwardConst.ACT_TOP.getValue()
+                                    + "&command=" + ForwardConst.CMD_INDEX.getValue());
                     return;
-                }
-            } else {
-                //ログイン済
-
-                if (ForwardConst.ACT_AUTH.getValue().equals(action)) {
-                    //認証系Actionを行おうとしている場合
-
-                    if (ForwardConst.CMD_SHOW_LOGIN.getValue().equals(command)) {
-                        //ログインページの表示はトップ画面にリダイレクト
-                        ((HttpServletResponse) response).sendRedirect(
-                                contextPath
-                                        + "?action=" + ForwardConst.ACT_TOP.getValue()
-                                        + "&command=" + ForwardConst.CMD_INDEX.getValue());
-                        return;
 
-                    } else if (ForwardConst.CMD_LOGOUT.getValue().equals(command)) {
-                        //ログアウトの実施は許可
+                } else if (ForwardConst.CMD_LOGOUT.getValue().equals(command)) {
+                    //ログアウトの実施は許可
 
-                    } else {
-                        //上記以外の認証系Actionはエラー画面
+                } else {
+                    //上記以外の認証系Actionはエラー画面
 
-                        String forward = String.format("/WEB-INF/views/%s.jsp", "error/unknown");
-                        RequestDispatcher dispatcher = request.getRequestDispatcher(forward);
-                        dispatcher.forward(request, response);
+                    String forward = String.format("/WEB-INF/views/%s.jsp", "error/unknown");
+                    RequestDispatcher dispatcher = request.getRequestDispatcher(forward);
+                    dispatcher.forward(request, response);
 
-                        return;
+                    return;
 
-                    }
                 }
             }
-
-            //次のフィルタまたはサーブレットを呼び出し
-            chain.doFilter(request, response);
         }
+
+        //次のフィルタまたはサーブレットを呼び出し
+        chain.doFilter(request, response);
     }
 
     /**
      * @see Filter#init(FilterConfig)
      */
     public void init(FilterConfig fConfig) throws ServletException {
+        context = fConfig.getServletContext();
+    }
+
+    /**
+     * 署名付きCookieを検証し、ログインしている学生を取得する
+     * 署名・有効期限はセッションやDBを使わずに確認し、失効はメモリに保持したバージョンで確認する
+     * @param request リクエスト
+     * @param response レスポンス
+     * @return ログインしている学生 Cookieがない、または無効な場合null
+     */
+    private StudentView getTokenStudent(HttpServletRequest request, HttpServletResponse response) {
+        String value = CookieUtil.get(request, SecurityConst.AUTH_COOKIE_NAME);
+        if (value == null) {
+            return null;
+        }
+
+        AuthToken token = AuthToken.parse(value, AuthToken.getSecret(context));
+        if (token == null || !TokenVersionCache.isCurrent(
+                token.getStudent().getId(), token.getVersion(), LoginFilter::loadTokenVersion)) {
+            //無効なCookieは削除する
+            CookieUtil.remove(request, response, SecurityConst.AUTH_COOKIE_NAME);
+            return null;
+        }
+
+        return token.getStudent();
+    }
+
+    /**
+     * 学生テーブルから署名付きCookieの現在のバージョンを取得する
+     * @param id 学生のid
+     * @return バージョン 削除済みまたは存在しない場合null
+     */
+    private static Integer loadTokenVersion(int id) {
+        StudentService service = new StudentService();
+        try {
+            return service.getTokenVersion(id);
+        } finally {
+            service.close();
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package listeners;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import utils.DBUtil;
+
+/**
+ * DB接続のライフサイクルを管理するリスナー
+ *
+ */
+@WebListener
+public class DBListener implements ServletContextListener {
+
+    public DBListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     * EntityManagerFactoryとコネクションプールを閉じる
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+        DBUtil.close();
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     * スキーマのマイグレーションとEntityManagerFactoryの作成を最初のリクエストより前に済ませる
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        DBUtil.createEntityManager().close();
+    }
+
+}
@@ -0,0 +1,107 @@
+package listeners;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.ServletRegistration;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * ビルド時に事前コンパイルしたJSPの状態を起動時に確認し、ログに出力するリスナー
+ * WEB-INF/views 配下の全てのJSPについて、web.xmlに生成されたサーブレットがマッピングされているかを調べ、
+ * クラスを読み込んでおくことで、配備直後の最初のリクエストでJSPの変換・コンパイルが発生しないことを確認する
+ *
+ */
+@WebListener
+public class JspPrecompileListener implements ServletContextListener {
+
+    //確認対象のJSPを格納するフォルダ
+    private static final String VIEW_DIR = "/WEB-INF/views/";
+
+    public JspPrecompileListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     * 事前コンパイルしたJSPのクラスを読み込み、件数・所要時間と、実行時にコンパイルされるJSPをログに出力する
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        ServletContext context = arg0.getServletContext();
+        long start = System.nanoTime();
+
+        //URLパターン(JSPのパス)とサーブレットクラス名の対応表
+        Map<String, String> mappings = new HashMap<>();
+        for (ServletRegistration registration : context.getServletRegistrations().values()) {
+            for (String pattern : registration.getMappings()) {
+                mappings.put(pattern, registration.getClassName());
+            }
+        }
+
+        List<String> jsps = new ArrayList<>();
+        collectJsps(context, VIEW_DIR, jsps);
+
+        ClassLoader loader = context.getClassLoader();
+        int precompiled = 0;
+        List<String> runtime = new ArrayList<>();
+        for (String jsp : jsps) {
+            String className = mappings.get(jsp);
+            if (className == null) {
+                //マッピングがない場合はコンテナのJSPサーブレットが初回のリクエスト時にコンパイルする
+                runtime.add(jsp);
+                continue;
+            }
+            try {
+                Class.forName(className, true, loader);
+                precompiled++;
+            } catch (ClassNotFoundException | LinkageError e) {
+                e.printStackTrace();
+                runtime.add(jsp);
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        context.log(String.format("jsp precompile: %d/%d views loaded in %d ms (jvm uptime %d ms)",
+                precompiled,
+                jsps.size(),
+                elapsedMillis,
+                ManagementFactory.getRuntimeMXBean().getUptime()));
+
+        for (String jsp : runtime) {
+            context.log("jsp precompile: not precompiled, will be compiled at runtime: " + jsp);
+        }
+    }
+
+    /**
+     * フォルダ配下のJSPのパスを再帰的に取得する(インクルード用の .jspf は単独でコンパイルされないため対象外)
+     * @param context サーブレットコンテキスト
+     * @param dir フォルダのパス
+     * @param jsps 取得したパスの格納先
+     */
+    private static void collectJsps(ServletContext context, String dir, List<String> jsps) {
+        Set<String> paths = context.getResourcePaths(dir);
+        if (paths == null) {
+            return;
+        }
+        for (String path : paths) {
+            if (path.endsWith("/")) {
+                collectJsps(context, path, jsps);
+            } else if (path.endsWith(".jsp")) {
+                jsps.add(path);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package listeners;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import utils.PasswordHashExecutor;
+
+/**
+ * パスワードのハッシュ化専用スレッドプールのライフサイクルを管理するリスナー
+ *
+ */
+@WebListener
+public class PasswordHashListener implements ServletContextListener {
+
+    public PasswordHashListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     * ハッシュ化専用スレッドプールを停止する
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+        PasswordHashExecutor.shutdown();
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+    }
+
+}
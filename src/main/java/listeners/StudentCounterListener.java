@@ -0,0 +1,74 @@
+package listeners;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import constants.JpaConst;
+import services.StudentService;
+
+/**
+ * 学生件数テーブルの値を定期的に実際の件数で補正するリスナー
+ * あわせて、学生番号のブルームフィルタを作り直し、他のノードでの登録等を反映する
+ *
+ */
+@WebListener
+public class StudentCounterListener implements ServletContextListener {
+
+    private ScheduledExecutorService scheduler;
+
+    public StudentCounterListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     * 補正処理のスレッドを停止する
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     * 起動直後と一定間隔毎に補正処理を実行する
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "student-counter-reconcile");
+            t.setDaemon(true);
+            return t;
+        });
+
+        scheduler.scheduleWithFixedDelay(
+                StudentCounterListener::reconcile,
+                0,
+                JpaConst.CNT_RECONCILE_INTERVAL_MINUTES,
+                TimeUnit.MINUTES);
+    }
+
+    /**
+     * 学生件数の補正と学生番号のブルームフィルタの作成を行う
+     * 例外が発生しても次回の実行は継続する
+     */
+    private static void reconcile() {
+        StudentService service = null;
+        try {
+            service = new StudentService();
+            service.reconcileCounters();
+            service.rebuildCodeIndex();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        } finally {
+            if (service != null) {
+                service.close();
+            }
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package models;
 
 import java.time.LocalDateTime;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -9,8 +10,13 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.QueryHints;
+
 import constants.JpaConst;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -21,16 +27,52 @@ import lombok.Setter;
 @NamedQueries({
     @NamedQuery(
             name = JpaConst.Q_STU_GET_ALL,
-            query = JpaConst.Q_STU_GET_ALL_DEF),
+            query = JpaConst.Q_STU_GET_ALL_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_STU_EXPORT,
+            query = JpaConst.Q_STU_EXPORT_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_STU_GET_AFTER_ID,
+            query = JpaConst.Q_STU_GET_AFTER_ID_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_STU_GET_BEFORE_ID,
+            query = JpaConst.Q_STU_GET_BEFORE_ID_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
     @NamedQuery(
             name = JpaConst.Q_STU_COUNT,
-            query = JpaConst.Q_STU_COUNT_DEF),
+            query = JpaConst.Q_STU_COUNT_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_STU_COUNT_DELETED,
+            query = JpaConst.Q_STU_COUNT_DELETED_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_STU_GET_CODES_IN,
+            query = JpaConst.Q_STU_GET_CODES_IN_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_STU_GET_ALL_CODES,
+            query = JpaConst.Q_STU_GET_ALL_CODES_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_STU_GET_TOKEN_VERSION,
+            query = JpaConst.Q_STU_GET_TOKEN_VERSION_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_STU_INCREMENT_TOKEN_VERSION,
+            query = JpaConst.Q_STU_INCREMENT_TOKEN_VERSION_DEF),
     @NamedQuery(
             name = JpaConst.Q_STU_COUNT_RESISTERED_BY_CODE,
             query = JpaConst.Q_STU_COUNT_RESISTERED_BY_CODE_DEF),
     @NamedQuery(
-            name = JpaConst.Q_STU_GET_BY_CODE_AND_PASS,
-            query = JpaConst.Q_STU_GET_BY_CODE_AND_PASS_DEF)
+            name = JpaConst.Q_STU_GET_BY_CODE,
+            query = JpaConst.Q_STU_GET_BY_CODE_DEF),
+    //条件付きGETの検証に使用するため、他のノードでの更新を反映しないクエリキャッシュは使用しない(いずれも索引の参照1回)
+    @NamedQuery(
+            name = JpaConst.Q_STU_GET_LIST_VALIDATOR,
+            query = JpaConst.Q_STU_GET_LIST_VALIDATOR_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_STU_GET_UPDATED_AT,
+            query = JpaConst.Q_STU_GET_UPDATED_AT_DEF)
 })
 
 @Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
@@ -38,7 +80,8 @@ import lombok.Setter;
 @NoArgsConstructor //引数なしコンストラクタを自動生成する(Lombok)
 @AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
 @Entity
-
+@Cacheable //2次キャッシュの対象とする
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Student{
 	/**
      * id
@@ -63,7 +106,7 @@ public class Student{
     /**
      * パスワード
      */
-    @Column(name = JpaConst.STU_COL_PASS, length = 64, nullable = false)
+    @Column(name = JpaConst.STU_COL_PASS, length = 128, nullable = false)
     private String password;
 
     /**
@@ -89,4 +132,10 @@ public class Student{
      */
     @Column(name = JpaConst.STU_COL_DELETE_FLAG, nullable = false)
     private Integer deleteFlag;
+
+    /**
+     * 署名付きCookieのバージョン(発行済みのCookieのバージョンと一致しない場合は失効とみなす)
+     */
+    @Column(name = JpaConst.STU_COL_TOKEN_VERSION, nullable = false)
+    private Integer tokenVersion;
 }
\ No newline at end of file
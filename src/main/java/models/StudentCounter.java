@@ -0,0 +1,53 @@
+package models;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.QueryHints;
+
+import constants.JpaConst;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 学生の件数(全件・現役・削除済み)を保持するエンティティ
+ * 一覧画面で毎回COUNTを実行しないよう、学生の登録・削除時に同一トランザクションで更新する
+ */
+@Table(name = JpaConst.TABLE_CNT)
+@NamedQueries({
+    @NamedQuery(
+            name = JpaConst.Q_CNT_GET_VALUE,
+            query = JpaConst.Q_CNT_GET_VALUE_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+    @NamedQuery(
+            name = JpaConst.Q_CNT_ADD,
+            query = JpaConst.Q_CNT_ADD_DEF)
+})
+
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@Setter //全てのクラスフィールドについてsetterを自動生成する(Lombok)
+@NoArgsConstructor //引数なしコンストラクタを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+@Entity
+public class StudentCounter {
+
+    /**
+     * 件数の種類(total, active, deleted)
+     */
+    @Id
+    @Column(name = JpaConst.CNT_COL_NAME, length = 16)
+    private String name;
+
+    /**
+     * 件数
+     */
+    @Column(name = JpaConst.CNT_COL_VALUE, nullable = false)
+    private Long value;
+}
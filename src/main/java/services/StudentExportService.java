@@ -0,0 +1,151 @@
+package services;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import constants.JpaConst;
+import utils.CsvUtil;
+
+/**
+ * 学生テーブルの全件を出力するクラス
+ * StatelessSessionと前方向のみのカーソルで1行ずつ読み込みながら書き出すため、
+ * 件数に関わらず全件をメモリや永続化コンテキストに保持しない
+ */
+public class StudentExportService extends ServiceBase {
+
+    /**
+     * 出力する項目名(パスワードは出力しない)
+     */
+    private static final String[] COLUMNS = {
+            JpaConst.STU_COL_ID,
+            JpaConst.STU_COL_CODE,
+            JpaConst.STU_COL_NAME,
+            JpaConst.STU_COL_ADMIN_FLAG,
+            JpaConst.STU_COL_CREATED_AT,
+            JpaConst.STU_COL_UPDATED_AT,
+            JpaConst.STU_COL_DELETE_FLAG };
+
+    /**
+     * 1行を出力する処理
+     */
+    private interface RowWriter {
+        void write(Object[] row) throws IOException;
+    }
+
+    /**
+     * 全ての学生をCSV形式(1行目は見出し)で出力する
+     * @param out 出力先
+     * @throws IOException
+     */
+    public void exportCsv(Writer out) throws IOException {
+        out.write(String.join(",", COLUMNS));
+        out.write("\r\n");
+
+        export(row -> {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(CsvUtil.escape(row[i] == null ? null : row[i].toString()));
+            }
+            out.write("\r\n");
+        });
+    }
+
+    /**
+     * 全ての学生をJSON Lines形式(1行に1件のJSONオブジェクト)で出力する
+     * @param out 出力先
+     * @throws IOException
+     */
+    public void exportJsonLines(Writer out) throws IOException {
+        export(row -> {
+            out.write('{');
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write('"');
+                out.write(COLUMNS[i]);
+                out.write("\":");
+                writeJsonValue(out, row[i]);
+            }
+            out.write("}\n");
+        });
+    }
+
+    /**
+     * 全ての学生をidの昇順に1行ずつ読み込み、出力処理に渡す
+     * @param writer 1行を出力する処理
+     * @throws IOException
+     */
+    private void export(RowWriter writer) throws IOException {
+        SessionFactory sf = em.getEntityManagerFactory().unwrap(SessionFactory.class);
+
+        try (StatelessSession session = sf.openStatelessSession()) {
+            ScrollableResults rows = session.createNamedQuery(JpaConst.Q_STU_EXPORT)
+                    .setFetchSize(JpaConst.EXPORT_FETCH_SIZE)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (rows.next()) {
+                    writer.write(rows.get());
+                }
+            } finally {
+                rows.close();
+            }
+        }
+    }
+
+    /**
+     * 値をJSONの値として出力する
+     * @param out 出力先
+     * @param value 値
+     * @throws IOException
+     */
+    private static void writeJsonValue(Writer out, Object value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        if (value instanceof Number) {
+            out.write(value.toString());
+            return;
+        }
+
+        String s = value instanceof LocalDateTime ? value.toString() : String.valueOf(value);
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+            case '"':
+                out.write("\\\"");
+                break;
+            case '\\':
+                out.write("\\\\");
+                break;
+            case '\n':
+                out.write("\\n");
+                break;
+            case '\r':
+                out.write("\\r");
+                break;
+            case '\t':
+                out.write("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    out.write(String.format("\\u%04x", (int) c));
+                } else {
+                    out.write(c);
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,239 @@
+package services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.PersistenceException;
+
+import actions.views.StudentImportResult;
+import actions.views.StudentView;
+import constants.AttributeConst;
+import constants.JpaConst;
+import constants.MessageConst;
+import models.validators.StudentValidator;
+import utils.CsvUtil;
+import utils.PasswordHashExecutor;
+
+/**
+ * CSVファイルから学生を一括登録するクラス
+ * ファイルを1行ずつ読み込み、一定件数毎にまとめて検証・ハッシュ化・登録するため、
+ * ファイルの大きさに関わらず保持する学生データは1チャンク分のみとなる
+ *
+ * 処理時間はパスワードのハッシュ化(PBKDF2 1件あたり1スレッドで約50ms)が大半を占める
+ * ハッシュ化はログインと共用のスレッドプールで同時にHASH_BULK_MAX_CONCURRENCY件まで行うため、
+ * 取込の速さは概ね HASH_BULK_MAX_CONCURRENCY × 20件/秒 となる(例: 8コアでは2スレッドで約40件/秒、5万件で約20分)
+ *
+ * CSVの形式: 番号,氏名,パスワード,権限(0:一般 1:管理者 省略時は一般)
+ * 1行目が「code」で始まる場合は見出し行として読み飛ばす
+ */
+public class StudentImportService {
+
+    /**
+     * CSVの列数(権限は省略可能)
+     */
+    private static final int MIN_COLUMNS = 3;
+    private static final int MAX_COLUMNS = 4;
+
+    /**
+     * 学生テーブルの操作を行うService
+     */
+    private final StudentService service;
+
+    /**
+     * コンストラクタ
+     * @param service 登録に使用するStudentServiceのインスタンス
+     */
+    public StudentImportService(StudentService service) {
+        this.service = service;
+    }
+
+    /**
+     * CSVを読み込み、学生を一括登録する
+     * @param is CSVファイルの入力ストリーム(UTF-8)
+     * @param pepper pepper文字列
+     * @return 取込結果
+     * @throws IOException
+     */
+    public StudentImportResult importCsv(InputStream is, String pepper) throws IOException {
+        StudentImportResult result = new StudentImportResult();
+
+        //ファイル内で既に出現した番号(ファイル内の重複チェック用)
+        Set<String> seenCodes = new HashSet<>();
+
+        List<StudentView> chunk = new ArrayList<>(JpaConst.IMPORT_CHUNK_SIZE);
+        List<Integer> chunkLines = new ArrayList<>(JpaConst.IMPORT_CHUNK_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (lineNumber == 1) {
+                    //BOMを除去し、見出し行は読み飛ばす
+                    if (line.startsWith("\uFEFF")) {
+                        line = line.substring(1);
+                    }
+                    if (line.startsWith(AttributeConst.STU_CODE.getValue())) {
+                        continue;
+                    }
+                }
+                if (line.trim().equals("")) {
+                    continue;
+                }
+
+                result.addRow();
+
+                StudentView sv = toStudentView(line, lineNumber, result);
+                if (sv == null) {
+                    continue;
+                }
+
+                if (!seenCodes.add(sv.getCode())) {
+                    result.addError(lineNumber, MessageConst.E_STU_CODE_DUPLICATE_IN_FILE.getMessage());
+                    continue;
+                }
+
+                chunk.add(sv);
+                chunkLines.add(lineNumber);
+
+                if (chunk.size() >= JpaConst.IMPORT_CHUNK_SIZE) {
+                    importChunk(chunk, chunkLines, pepper, result);
+                    chunk.clear();
+                    chunkLines.clear();
+                }
+            }
+        }
+
+        if (chunk.size() > 0) {
+            importChunk(chunk, chunkLines, pepper, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * CSVの1行を学生データに変換し、入力チェックを行う
+     * @param line CSVの1行
+     * @param lineNumber 行番号
+     * @param result 取込結果(エラーの追加先)
+     * @return 学生データ エラーがある場合null
+     */
+    private StudentView toStudentView(String line, int lineNumber, StudentImportResult result) {
+        List<String> fields = CsvUtil.parseLine(line);
+        if (fields.size() < MIN_COLUMNS || fields.size() > MAX_COLUMNS) {
+            result.addError(lineNumber, MessageConst.E_IMPORT_COLUMNS.getMessage());
+            return null;
+        }
+
+        Integer adminFlag = AttributeConst.ROLE_GENERAL.getIntegerValue();
+        if (fields.size() == MAX_COLUMNS && !fields.get(3).trim().equals("")) {
+            String flag = fields.get(3).trim();
+            if (flag.equals(AttributeConst.ROLE_ADMIN.getIntegerValue().toString())) {
+                adminFlag = AttributeConst.ROLE_ADMIN.getIntegerValue();
+            } else if (!flag.equals(AttributeConst.ROLE_GENERAL.getIntegerValue().toString())) {
+                result.addError(lineNumber, MessageConst.E_INVALID_ROLE.getMessage());
+                return null;
+            }
+        }
+
+        StudentView sv = new StudentView(
+                null,
+                fields.get(0).trim(),
+                fields.get(1).trim(),
+                fields.get(2),
+                adminFlag,
+                null,
+                null,
+                AttributeConst.DEL_FLAG_FALSE.getIntegerValue());
+
+        //番号の重複はチャンク単位でまとめて確認するため、ここでは入力チェックのみ行う
+        List<String> errors = StudentValidator.validate(service, sv, false, true);
+        if (errors.size() > 0) {
+            for (String error : errors) {
+                result.addError(lineNumber, error);
+            }
+            return null;
+        }
+
+        return sv;
+    }
+
+    /**
+     * 1チャンク分の学生データについて、登録済み番号の確認・パスワードのハッシュ化・一括登録を行う
+     * @param chunk 学生データのリスト
+     * @param chunkLines 各学生データの行番号
+     * @param pepper pepper文字列
+     * @param result 取込結果
+     */
+    private void importChunk(List<StudentView> chunk, List<Integer> chunkLines, String pepper,
+            StudentImportResult result) {
+
+        //チャンク内の番号のうち、登録済みのものを1回のクエリで取得する
+        Set<String> codes = new HashSet<>();
+        for (StudentView sv : chunk) {
+            codes.add(sv.getCode());
+        }
+        Set<String> registered = service.findRegisteredCodes(codes);
+
+        List<StudentView> targets = new ArrayList<>(chunk.size());
+        List<Integer> targetLines = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            StudentView sv = chunk.get(i);
+            if (registered.contains(sv.getCode())) {
+                result.addError(chunkLines.get(i), MessageConst.E_STU_CODE_EXIST.getMessage());
+            } else {
+                targets.add(sv);
+                targetLines.add(chunkLines.get(i));
+            }
+        }
+
+        if (targets.isEmpty()) {
+            return;
+        }
+
+        //パスワードのハッシュ化を専用スレッドプールで並列に行う(同時に実行する件数はログイン用に制限される)
+        List<String> plainPasses = new ArrayList<>(targets.size());
+        for (StudentView sv : targets) {
+            plainPasses.add(sv.getPassword());
+        }
+        List<String> hashes = PasswordHashExecutor.hashAll(plainPasses, pepper);
+        for (int i = 0; i < targets.size(); i++) {
+            targets.get(i).setPassword(hashes.get(i));
+        }
+
+        //登録日時、更新日時は現在時刻を設定する
+        LocalDateTime now = LocalDateTime.now();
+        for (StudentView sv : targets) {
+            sv.setCreatedAt(now);
+            sv.setUpdatedAt(now);
+        }
+
+        try {
+            //登録済みの番号(ブルームフィルタで未登録と判定したが他のノード等で登録されていたもの)は登録されない
+            Set<String> duplicates = service.createAll(targets);
+            int skipped = 0;
+            for (int i = 0; i < targets.size(); i++) {
+                if (duplicates.contains(targets.get(i).getCode())) {
+                    result.addError(targetLines.get(i), MessageConst.E_STU_CODE_EXIST.getMessage());
+                    skipped++;
+                }
+            }
+            result.addImported(targets.size() - skipped);
+        } catch (PersistenceException e) {
+            //同時に登録された番号との重複等でチャンク全体の登録に失敗した場合
+            e.printStackTrace();
+            for (Integer lineNumber : targetLines) {
+                result.addError(lineNumber, MessageConst.E_IMPORT_FAILED.getMessage());
+            }
+        }
+    }
+}
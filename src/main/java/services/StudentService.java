@@ -1,40 +1,127 @@
 package services;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+import javax.persistence.LockModeType;
 import javax.persistence.NoResultException;
+import javax.persistence.PersistenceException;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import actions.views.AuthResult;
+import actions.views.CursorPage;
+import actions.views.ListValidator;
 import actions.views.StudentConverter;
+import actions.views.StudentListView;
 import actions.views.StudentView;
+import constants.AttributeConst;
 import constants.JpaConst;
+import constants.MessageConst;
 import models.Student;
+import models.StudentCounter;
 import models.validators.StudentValidator;
+import utils.CursorUtil;
 import utils.EncryptUtil;
+import utils.HashRejectedException;
+import utils.PasswordHashExecutor;
+import utils.StudentCodeIndex;
+import utils.StudentListCache;
+import utils.TokenVersionCache;
 
 /**
  * 学生テーブルの操作に関わる処理を行うクラス
  */
 public class StudentService extends ServiceBase{
 	/**
-     * 指定されたページ数の一覧画面に表示するデータを取得し、EmployeeViewのリストで返却する
+     * 指定されたページ数の一覧画面に表示するデータを取得し、StudentListViewのリストで返却する
      * @param page ページ数
      * @return 表示するデータのリスト
      */
-    public List<StudentView> getPerPage(int page) {
-        List<Student> students = em.createNamedQuery(JpaConst.Q_STU_GET_ALL, Student.class)
+    public List<StudentListView> getPerPage(int page) {
+        List<StudentListView> students = em.createNamedQuery(JpaConst.Q_STU_GET_ALL, StudentListView.class)
                 .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
                 .setMaxResults(JpaConst.ROW_PER_PAGE)
                 .getResultList();
 
-        return StudentConverter.toViewList(students);
+        return students;
+    }
+
+    /**
+     * カーソルが示す位置から1ページ分の一覧画面に表示するデータを取得し、前後ページのカーソルとあわせて返却する
+     * idを条件に索引を辿るため、後ろのページでも読み飛ばしが発生しない
+     * @param cursor カーソル文字列(nullまたは不正な値の場合は先頭ページ)
+     * @return 表示するデータのリストと前後ページのカーソル
+     */
+    public CursorPage<StudentListView> getPerPage(String cursor) {
+        char direction = CursorUtil.getDirection(cursor);
+        Integer id = CursorUtil.getId(cursor);
+
+        if (direction == CursorUtil.BEFORE) {
+            //基準idより新しいデータを昇順に1件多く取得し、前のページが存在するか判定する
+            List<StudentListView> students = em.createNamedQuery(JpaConst.Q_STU_GET_BEFORE_ID, StudentListView.class)
+                    .setParameter(JpaConst.JPQL_PARM_ID, id)
+                    .setMaxResults(JpaConst.ROW_PER_PAGE + 1)
+                    .getResultList();
+
+            if (students.size() < JpaConst.ROW_PER_PAGE) {
+                //1ページに満たない場合は先頭ページを表示する
+                return getPerPage(null);
+            }
+
+            boolean hasPrev = students.size() > JpaConst.ROW_PER_PAGE;
+            List<StudentListView> page = new ArrayList<>(students.subList(0, JpaConst.ROW_PER_PAGE));
+            Collections.reverse(page);
+
+            return toCursorPage(page, true, hasPrev);
+        }
+
+        List<StudentListView> students;
+        if (direction == CursorUtil.AFTER) {
+            //基準idより古いデータを降順に取得する
+            students = em.createNamedQuery(JpaConst.Q_STU_GET_AFTER_ID, StudentListView.class)
+                    .setParameter(JpaConst.JPQL_PARM_ID, id)
+                    .setMaxResults(JpaConst.ROW_PER_PAGE + 1)
+                    .getResultList();
+        } else {
+            //先頭ページ
+            students = em.createNamedQuery(JpaConst.Q_STU_GET_ALL, StudentListView.class)
+                    .setMaxResults(JpaConst.ROW_PER_PAGE + 1)
+                    .getResultList();
+        }
+
+        boolean hasNext = students.size() > JpaConst.ROW_PER_PAGE;
+        List<StudentListView> page = hasNext ? students.subList(0, JpaConst.ROW_PER_PAGE) : students;
+
+        return toCursorPage(page, hasNext, direction == CursorUtil.AFTER && page.size() > 0);
     }
 
     /**
      * 学生テーブルのデータの件数を取得し、返却する
+     * 学生件数テーブルの値を返却し、未作成の場合のみ学生テーブルの件数を数える
      * @return 学生テーブルのデータの件数
      */
     public long countAll() {
+        Long counter = getCounter(JpaConst.CNT_TOTAL);
+        if (counter != null) {
+            return counter;
+        }
+
         long empCount = (long) em.createNamedQuery(JpaConst.Q_STU_COUNT, Long.class)
                 .getSingleResult();
 
@@ -42,29 +129,178 @@ public class StudentService extends ServiceBase{
     }
 
     /**
-     * 番号、パスワードを条件に取得したデータをStudentViewのインスタンスで返却する
-     * @param code 番号
-     * @param plainPass パスワード文字列
-     * @param pepper pepper文字列
-     * @return 取得データのインスタンス 取得できない場合null
+     * 現役(未削除)の学生の件数を取得し、返却する
+     * @return 現役の学生の件数
      */
-    public StudentView findOne(String code, String plainPass, String pepper) {
-        Student s = null;
+    public long countActive() {
+        Long counter = getCounter(JpaConst.CNT_ACTIVE);
+        if (counter != null) {
+            return counter;
+        }
+
+        return countAll() - countDeleted();
+    }
+
+    /**
+     * 削除済みの学生の件数を取得し、返却する
+     * @return 削除済みの学生の件数
+     */
+    public long countDeleted() {
+        Long counter = getCounter(JpaConst.CNT_DELETED);
+        if (counter != null) {
+            return counter;
+        }
+
+        long deletedCount = (long) em.createNamedQuery(JpaConst.Q_STU_COUNT_DELETED, Long.class)
+                .getSingleResult();
+
+        return deletedCount;
+    }
+
+    /**
+     * 一覧画面の条件付きGETに使用する、全ての学生の更新日時の最大値と件数を1回のクエリで取得する
+     * 学生件数テーブルが未作成の場合のみ学生テーブルの件数を数える
+     * @return 更新日時の最大値と件数
+     */
+    public ListValidator getListValidator() {
+        Object[] row = em.createNamedQuery(JpaConst.Q_STU_GET_LIST_VALIDATOR, Object[].class)
+                .setParameter(JpaConst.JPQL_PARM_NAME, JpaConst.CNT_TOTAL)
+                .getSingleResult();
+
+        LocalDateTime lastUpdatedAt = (LocalDateTime) row[0];
+        long count = row[1] != null ? ((Number) row[1]).longValue() : countAll();
+
+        return new ListValidator(lastUpdatedAt, count);
+    }
+
+    /**
+     * idを条件に未削除の学生の更新日時を取得する(詳細画面の条件付きGETに使用する)
+     * @param id
+     * @return 更新日時 該当する未削除の学生がいない場合null
+     */
+    public LocalDateTime getUpdatedAt(int id) {
+        List<LocalDateTime> updatedAts = em.createNamedQuery(JpaConst.Q_STU_GET_UPDATED_AT, LocalDateTime.class)
+                .setParameter(JpaConst.JPQL_PARM_ID, id)
+                .getResultList();
+
+        return updatedAts.isEmpty() ? null : updatedAts.get(0);
+    }
+
+    /**
+     * 学生件数テーブルの値を学生テーブルの実際の件数で補正する
+     * 件数の行をロックしてから数えるため、実行中の登録・削除とは直列に処理される
+     */
+    public void reconcileCounters() {
+        String[] names = { JpaConst.CNT_TOTAL, JpaConst.CNT_ACTIVE, JpaConst.CNT_DELETED };
+
+        em.getTransaction().begin();
         try {
-            //パスワードのハッシュ化
-            String pass = EncryptUtil.getPasswordEncrypt(plainPass, pepper);
+            //件数の行をロックする(未作成の場合は作成する)
+            Map<String, StudentCounter> counters = new HashMap<>();
+            for (String name : names) {
+                StudentCounter c = em.find(StudentCounter.class, name, LockModeType.PESSIMISTIC_WRITE);
+                if (c == null) {
+                    c = new StudentCounter(name, 0L);
+                    em.persist(c);
+                }
+                counters.put(name, c);
+            }
 
-            //社員番号とハッシュ化済パスワードを条件に未削除の従業員を1件取得する
-            s = em.createNamedQuery(JpaConst.Q_STU_GET_BY_CODE_AND_PASS, Student.class)
-                    .setParameter(JpaConst.JPQL_PARM_CODE, code)
-                    .setParameter(JpaConst.JPQL_PARM_PASSWORD, pass)
+            //実際の件数を数えて設定する
+            long total = (long) em.createNamedQuery(JpaConst.Q_STU_COUNT, Long.class)
+                    .getSingleResult();
+            long deleted = (long) em.createNamedQuery(JpaConst.Q_STU_COUNT_DELETED, Long.class)
                     .getSingleResult();
 
-        } catch (NoResultException ex) {
+            counters.get(JpaConst.CNT_TOTAL).setValue(total);
+            counters.get(JpaConst.CNT_ACTIVE).setValue(total - deleted);
+            counters.get(JpaConst.CNT_DELETED).setValue(deleted);
+
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
         }
 
-        return StudentConverter.toView(s);
+        //一覧画面に表示する件数が変わり得るため、一覧の描画結果を破棄する
+        StudentListCache.invalidate();
+    }
+
+    /**
+     * idを条件に未削除の学生の署名付きCookieのバージョンを取得する
+     * @param id
+     * @return バージョン 該当する未削除の学生がいない場合null
+     */
+    public Integer getTokenVersion(int id) {
+        List<Integer> versions = em.createNamedQuery(JpaConst.Q_STU_GET_TOKEN_VERSION, Integer.class)
+                .setParameter(JpaConst.JPQL_PARM_ID, id)
+                .getResultList();
 
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    /**
+     * idを条件に学生のバージョンを加算し、発行済みの署名付きCookieを全て失効させる
+     * @param id
+     */
+    public void revokeTokens(int id) {
+        em.getTransaction().begin();
+        em.createNamedQuery(JpaConst.Q_STU_INCREMENT_TOKEN_VERSION)
+                .setParameter(JpaConst.JPQL_PARM_ID, id)
+                .executeUpdate();
+        em.getTransaction().commit();
+
+        //JPQLの一括更新は2次キャッシュを経由しないため、該当する学生をキャッシュから破棄する
+        em.getEntityManagerFactory().getCache().evict(Student.class, id);
+        TokenVersionCache.invalidate(id);
+    }
+
+    /**
+     * 学生テーブルを参照するクエリキャッシュを破棄する
+     * JPAを経由しない登録や他のノードでの更新はクエリキャッシュに反映されないため、それらを検知した場合に呼び出す
+     */
+    public void evictQueryCache() {
+        em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    /**
+     * 全ての学生の番号を読み込み、学生番号のブルームフィルタを作成し直す
+     * 読み込み中に登録された番号も作成中のフィルタに反映される
+     */
+    public void rebuildCodeIndex() {
+        Long total = getCounter(JpaConst.CNT_TOTAL);
+        StudentCodeIndex.beginLoad(total == null ? 0 : total);
+
+        SessionFactory sf = em.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession session = sf.openStatelessSession()) {
+            ScrollableResults rows = session.createNamedQuery(JpaConst.Q_STU_GET_ALL_CODES)
+                    .setFetchSize(JpaConst.EXPORT_FETCH_SIZE)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (rows.next()) {
+                    StudentCodeIndex.load((String) rows.get(0));
+                }
+            } finally {
+                rows.close();
+            }
+            StudentCodeIndex.endLoad();
+        } finally {
+            //読み込みに失敗した場合は従来のフィルタ(未作成の場合はDBでの確認)を使い続ける
+            StudentCodeIndex.abortLoad();
+        }
+    }
+
+    /**
+     * 番号、パスワードを条件に取得したデータをStudentViewのインスタンスで返却する
+     * @param code 番号
+     * @param plainPass パスワード文字列
+     * @param pepper pepper文字列
+     * @return 取得データのインスタンス 取得できない場合null
+     */
+    public StudentView findOne(String code, String plainPass, String pepper) {
+        return authenticate(code, plainPass, pepper).getStudent();
     }
 
     /**
@@ -84,13 +320,181 @@ public class StudentService extends ServiceBase{
      */
     public long countByCode(String code) {
 
+        //ブルームフィルタで未登録と判定した番号はDBに問い合わせない
+        //(他のノードで登録された番号を誤って未登録と判定した場合は、登録時に一意制約で検出する)
+        if (!StudentCodeIndex.mightContain(code)) {
+            return 0;
+        }
+
         //指定した社員番号を保持する従業員の件数を取得する
         long students_count = (long) em.createNamedQuery(JpaConst.Q_STU_COUNT_RESISTERED_BY_CODE, Long.class)
                 .setParameter(JpaConst.JPQL_PARM_CODE, code)
                 .getSingleResult();
+
         return students_count;
     }
 
+    /**
+     * 指定した番号のうち、学生テーブルに登録済みの番号を1回のクエリで取得する
+     * @param codes 番号のリスト
+     * @return 登録済みの番号
+     */
+    public Set<String> findRegisteredCodes(Collection<String> codes) {
+
+        //ブルームフィルタで登録されているかもしれないと判定した番号のみDBで確認する
+        //(他のノードで登録された番号を誤って未登録と判定した場合は、登録時に一意制約で検出する)
+        List<String> candidates = new ArrayList<>();
+        for (String code : codes) {
+            if (StudentCodeIndex.mightContain(code)) {
+                candidates.add(code);
+            }
+        }
+        return queryRegisteredCodes(candidates);
+    }
+
+    /**
+     * 指定した番号のうち、学生テーブルに登録済みの番号をブルームフィルタを使用せずに取得する
+     * @param codes 番号のリスト
+     * @return 登録済みの番号
+     */
+    private Set<String> queryRegisteredCodes(Collection<String> codes) {
+        if (codes.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        List<String> registered = em.createNamedQuery(JpaConst.Q_STU_GET_CODES_IN, String.class)
+                .setParameter(JpaConst.JPQL_PARM_CODES, codes)
+                .getResultList();
+
+        return new HashSet<>(registered);
+    }
+
+    /**
+     * 例外の原因が学生番号の一意制約(uk_students_code)の違反かどうか
+     * (ブルームフィルタで未登録と判定した番号が、他のノード等で登録済みだった場合に発生する)
+     * @param e 登録時に発生した例外
+     * @return true: 番号の重複 false: それ以外
+     */
+    public static boolean isDuplicateCode(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                for (SQLException se = (SQLException) t; se != null; se = se.getNextException()) {
+                    String state = se.getSQLState();
+                    String message = se.getMessage();
+                    if (state != null && state.startsWith(JpaConst.SQL_STATE_INTEGRITY_VIOLATION)
+                            && message != null && message.toLowerCase().contains(JpaConst.STU_UK_CODE)) {
+                        return true;
+                    }
+                }
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 検証・ハッシュ化済みの学生データをJDBCバッチでまとめて登録する
+     * 学生件数の更新も同一トランザクションで行う
+     * 番号の一意制約に違反した場合は、登録済みの番号を除いて登録し直す
+     * @param svs 登録する学生データのリスト(パスワードはハッシュ化済み)
+     * @return 登録済みのため登録しなかった番号
+     */
+    public Set<String> createAll(List<StudentView> svs) {
+        Set<String> duplicates = new HashSet<>();
+        List<StudentView> targets = svs;
+
+        while (true) {
+            try {
+                insertAll(targets);
+                break;
+            } catch (PersistenceException e) {
+                if (!isDuplicateCode(e)) {
+                    throw e;
+                }
+
+                //ブルームフィルタで未登録と判定したが登録済みだった番号を除く
+                Set<String> codes = new HashSet<>();
+                for (StudentView sv : targets) {
+                    codes.add(sv.getCode());
+                }
+                Set<String> registered = queryRegisteredCodes(codes);
+                if (registered.isEmpty()) {
+                    //登録するデータの中での重複等
+                    throw e;
+                }
+                for (String code : registered) {
+                    StudentCodeIndex.recordStale(code);
+                }
+                duplicates.addAll(registered);
+
+                List<StudentView> remaining = new ArrayList<>(targets.size());
+                for (StudentView sv : targets) {
+                    if (!registered.contains(sv.getCode())) {
+                        remaining.add(sv);
+                    }
+                }
+                targets = remaining;
+                if (targets.isEmpty()) {
+                    return duplicates;
+                }
+            }
+        }
+
+        //JPAを経由せずに登録したため、学生テーブルを参照するクエリキャッシュを破棄する
+        evictQueryCache();
+
+        for (StudentView sv : targets) {
+            StudentCodeIndex.add(sv.getCode());
+        }
+        StudentListCache.invalidate();
+
+        return duplicates;
+    }
+
+    /**
+     * 学生データをJDBCバッチで登録する(学生件数の更新も同一トランザクションで行う)
+     * @param svs 登録する学生データのリスト(パスワードはハッシュ化済み)
+     */
+    private void insertAll(List<StudentView> svs) {
+
+        em.getTransaction().begin();
+        try {
+            em.unwrap(Session.class).doWork(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(JpaConst.SQL_STU_INSERT)) {
+                    int count = 0;
+                    for (StudentView sv : svs) {
+                        ps.setString(1, sv.getCode());
+                        ps.setString(2, sv.getName());
+                        ps.setString(3, sv.getPassword());
+                        ps.setInt(4, sv.getAdminFlag() == AttributeConst.ROLE_ADMIN.getIntegerValue()
+                                ? JpaConst.ROLE_ADMIN
+                                : JpaConst.ROLE_GENERAL);
+                        ps.setTimestamp(5, Timestamp.valueOf(sv.getCreatedAt()));
+                        ps.setTimestamp(6, Timestamp.valueOf(sv.getUpdatedAt()));
+                        ps.setInt(7, JpaConst.STU_DEL_FALSE);
+                        ps.addBatch();
+
+                        if (++count % JpaConst.JDBC_BATCH_SIZE == 0) {
+                            ps.executeBatch();
+                        }
+                    }
+                    ps.executeBatch();
+                }
+            });
+
+            addCounter(JpaConst.CNT_TOTAL, svs.size());
+            addCounter(JpaConst.CNT_ACTIVE, svs.size());
+
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+        }
+    }
+
     /**
      * 画面から入力された学生の登録内容を元にデータを1件作成し、学生テーブルに登録する
      * @param sv 画面から入力された学生の登録内容
@@ -99,10 +503,6 @@ public class StudentService extends ServiceBase{
      */
     public List<String> create(StudentView sv, String pepper) {
 
-        //パスワードをハッシュ化して設定
-        String pass = EncryptUtil.getPasswordEncrypt(sv.getPassword(), pepper);
-        sv.setPassword(pass);
-
         //登録日時、更新日時は現在時刻を設定する
         LocalDateTime now = LocalDateTime.now();
         sv.setCreatedAt(now);
@@ -111,9 +511,24 @@ public class StudentService extends ServiceBase{
         //登録内容のバリデーションを行う
         List<String> errors = StudentValidator.validate(this, sv, true, true);
 
-        //バリデーションエラーがなければデータを登録する
+        //バリデーションエラーがなければパスワードをハッシュ化してデータを登録する
         if (errors.size() == 0) {
-            create(sv);
+            try {
+                sv.setPassword(PasswordHashExecutor.hash(sv.getPassword(), pepper));
+            } catch (HashRejectedException e) {
+                errors.add(MessageConst.E_HASH_BUSY.getMessage());
+                return errors;
+            }
+            try {
+                create(sv);
+            } catch (PersistenceException e) {
+                if (!isDuplicateCode(e)) {
+                    throw e;
+                }
+                //ブルームフィルタで未登録と判定したが、他のノード等で登録済みだった場合
+                StudentCodeIndex.recordStale(sv.getCode());
+                errors.add(MessageConst.E_STU_CODE_EXIST.getMessage());
+            }
         }
 
         //エラーを返却（エラーがなければ0件の空リスト）
@@ -131,6 +546,11 @@ public class StudentService extends ServiceBase{
         //idを条件に登録済みの従業員情報を取得する
         StudentView savedStu = findOne(sv.getId());
 
+        //署名付きCookieに含まれる項目(番号・氏名・権限)またはパスワードが変わるかどうか
+        boolean revokeTokens = !Objects.equals(savedStu.getCode(), sv.getCode())
+                || !Objects.equals(savedStu.getName(), sv.getName())
+                || !Objects.equals(savedStu.getAdminFlag(), sv.getAdminFlag());
+
         boolean validateCode = false;
         if (!savedStu.getCode().equals(sv.getCode())) {
             //番号を更新する場合
@@ -148,9 +568,9 @@ public class StudentService extends ServiceBase{
             //パスワードについてのバリデーションを行う
             validatePass = true;
 
-            //変更後のパスワードをハッシュ化し設定する
-            savedStu.setPassword(
-                    EncryptUtil.getPasswordEncrypt(sv.getPassword(), pepper));
+            //変更後のパスワードを設定する(バリデーション後にハッシュ化する)
+            savedStu.setPassword(sv.getPassword());
+            revokeTokens = true;
         }
 
         savedStu.setName(sv.getName()); //変更後の氏名を設定する
@@ -165,7 +585,25 @@ public class StudentService extends ServiceBase{
 
         //バリデーションエラーがなければデータを更新する
         if (errors.size() == 0) {
-            update(savedStu);
+            if (validatePass) {
+                //変更後のパスワードをハッシュ化し設定する
+                try {
+                    savedStu.setPassword(PasswordHashExecutor.hash(sv.getPassword(), pepper));
+                } catch (HashRejectedException e) {
+                    errors.add(MessageConst.E_HASH_BUSY.getMessage());
+                    return errors;
+                }
+            }
+            try {
+                update(savedStu, revokeTokens);
+            } catch (PersistenceException e) {
+                if (!isDuplicateCode(e)) {
+                    throw e;
+                }
+                //ブルームフィルタで未登録と判定したが、他のノード等で登録済みだった場合
+                StudentCodeIndex.recordStale(savedStu.getCode());
+                errors.add(MessageConst.E_STU_CODE_EXIST.getMessage());
+            }
         }
 
         //エラーを返却（エラーがなければ0件の空リスト）
@@ -180,6 +618,7 @@ public class StudentService extends ServiceBase{
 
         //idを条件に登録済みの従業員情報を取得する
         StudentView savedStu = findOne(id);
+        boolean wasActive = savedStu.getDeleteFlag() != JpaConst.STU_DEL_TRUE;
 
         //更新日時に現在時刻を設定する
         LocalDateTime today = LocalDateTime.now();
@@ -188,8 +627,20 @@ public class StudentService extends ServiceBase{
         //論理削除フラグをたてる
         savedStu.setDeleteFlag(JpaConst.STU_DEL_TRUE);
 
-        //更新処理を行う
-        update(savedStu);
+        //更新処理と学生件数の更新を同一トランザクションで行う
+        em.getTransaction().begin();
+        Student s = findOneInternal(savedStu.getId());
+        StudentConverter.copyViewToModel(s, savedStu);
+        if (wasActive) {
+            addCounter(JpaConst.CNT_ACTIVE, -1);
+            addCounter(JpaConst.CNT_DELETED, 1);
+        }
+        //発行済みの署名付きCookieを失効させる
+        s.setTokenVersion(s.getTokenVersion() + 1);
+        em.getTransaction().commit();
+
+        TokenVersionCache.invalidate(s.getId());
+        StudentListCache.invalidate();
 
     }
 
@@ -202,19 +653,95 @@ public class StudentService extends ServiceBase{
      */
     public Boolean validateLogin(String code, String plainPass, String pepper) {
 
-        boolean isValidEmployee = false;
-        if (code != null && !code.equals("") && plainPass != null && !plainPass.equals("")) {
-            StudentView sv = findOne(code, plainPass, pepper);
+        //認証結果を返却する
+        return authenticate(code, plainPass, pepper).isSuccess();
+    }
+
+    /**
+     * 番号とパスワードで認証を行い、ログインした学生または失敗の理由を返却する
+     * パスワードのハッシュ化と学生の検索はそれぞれ1回のみ行う
+     * @param code 番号
+     * @param plainPass パスワード
+     * @param pepper pepper文字列
+     * @return 認証結果
+     */
+    public AuthResult authenticate(String code, String plainPass, String pepper) {
+
+        if (code == null || code.equals("") || plainPass == null || plainPass.equals("")) {
+            return AuthResult.failure(AuthResult.Failure.EMPTY_INPUT);
+        }
+
+        //ブルームフィルタで未登録と判定した番号はDBに問い合わせずに失敗とする
+        //他のノードで登録された番号は、このノードのフィルタの再作成(件数補正の間隔以内)まで未登録と判定されログインできない
+        //(フィルタが未作成または件数補正の間隔より古い場合は判定を使用せず、DBで確認する)
+        if (!StudentCodeIndex.mightContain(code)) {
+            return AuthResult.failure(AuthResult.Failure.INVALID_CREDENTIALS);
+        }
+
+        //番号を条件に未削除の学生を1件取得する
+        Student s = null;
+        try {
+            s = em.createNamedQuery(JpaConst.Q_STU_GET_BY_CODE, Student.class)
+                    .setParameter(JpaConst.JPQL_PARM_CODE, code)
+                    .getSingleResult();
+        } catch (NoResultException ex) {
+        }
+
+        if (s == null) {
+            //未登録の番号はハッシュ化を行わずに失敗とする
+            return AuthResult.failure(AuthResult.Failure.INVALID_CREDENTIALS);
+        }
+
+        //パスワードの照合(旧形式の場合は現在の形式でのハッシュ化も)を専用スレッドプールで1回で行う
+        //結果 null: 不一致 保存済みの値: 一致 それ以外: 一致かつハッシュ化し直した値
+        String stored = s.getPassword();
+        String verified;
+        try {
+            verified = PasswordHashExecutor.execute(() -> {
+                if (!EncryptUtil.verifyPassword(plainPass, pepper, stored)) {
+                    return null;
+                }
+                return EncryptUtil.needsRehash(stored) ? EncryptUtil.hashPassword(plainPass, pepper) : stored;
+            });
+        } catch (HashRejectedException e) {
+            return AuthResult.failure(AuthResult.Failure.BUSY);
+        }
 
-            if (sv != null && sv.getId() != null) {
+        if (verified == null) {
+            return AuthResult.failure(AuthResult.Failure.INVALID_CREDENTIALS);
+        }
 
-                //データが取得できた場合、認証成功
-                isValidEmployee = true;
+        if (!verified.equals(stored)) {
+            //旧形式のハッシュ値を現在の形式に置き換える
+            em.getTransaction().begin();
+            s.setPassword(verified);
+            em.getTransaction().commit();
+        }
+
+        //認証成功
+        return AuthResult.success(StudentConverter.toView(s), s.getTokenVersion());
+    }
+
+    /**
+     * 1ページ分の学生データから前後ページのカーソルを作成し、CursorPageのインスタンスで返却する
+     * @param page idの降順に並んだ1ページ分の学生データ
+     * @param hasNext 次のページが存在するかどうか
+     * @param hasPrev 前のページが存在するかどうか
+     * @return CursorPageのインスタンス
+     */
+    private CursorPage<StudentListView> toCursorPage(List<StudentListView> page, boolean hasNext, boolean hasPrev) {
+        String next = null;
+        String prev = null;
+        if (page.size() > 0) {
+            if (hasNext) {
+                next = CursorUtil.encode(CursorUtil.AFTER, page.get(page.size() - 1).getId());
+            }
+            if (hasPrev) {
+                prev = CursorUtil.encode(CursorUtil.BEFORE, page.get(0).getId());
             }
         }
 
-        //認証結果を返却する
-        return isValidEmployee;
+        return new CursorPage<>(page, next, prev);
     }
 
     /**
@@ -236,21 +763,87 @@ public class StudentService extends ServiceBase{
     private void create(StudentView sv) {
 
         em.getTransaction().begin();
-        em.persist(StudentConverter.toModel(sv));
-        em.getTransaction().commit();
+        try {
+            em.persist(StudentConverter.toModel(sv));
+            addCounter(JpaConst.CNT_TOTAL, 1);
+            addCounter(JpaConst.CNT_ACTIVE, 1);
+            em.getTransaction().commit();
+        } catch (PersistenceException e) {
+            //登録に失敗したデータを永続化コンテキストから取り除く
+            rollbackAndClear();
+            throw e;
+        }
+
+        StudentCodeIndex.add(sv.getCode());
+        StudentListCache.invalidate();
 
     }
 
+    /**
+     * 失敗したトランザクションをロールバックし、永続化コンテキストを空にする
+     */
+    private void rollbackAndClear() {
+        if (em.getTransaction().isActive()) {
+            em.getTransaction().rollback();
+        }
+        em.clear();
+    }
+
+    /**
+     * 指定した種類の学生件数を取得する
+     * @param name 件数の種類
+     * @return 件数 学生件数テーブルに未作成の場合null
+     */
+    private Long getCounter(String name) {
+        List<Long> values = em.createNamedQuery(JpaConst.Q_CNT_GET_VALUE, Long.class)
+                .setParameter(JpaConst.JPQL_PARM_NAME, name)
+                .getResultList();
+
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * 指定した種類の学生件数に増減値を加算する(トランザクション内で呼び出すこと)
+     * @param name 件数の種類
+     * @param delta 増減値
+     */
+    private void addCounter(String name, long delta) {
+        em.createNamedQuery(JpaConst.Q_CNT_ADD)
+                .setParameter(JpaConst.JPQL_PARM_DELTA, delta)
+                .setParameter(JpaConst.JPQL_PARM_NAME, name)
+                .executeUpdate();
+    }
+
     /**
      * 従業員データを更新する
      * @param ev 画面から入力された従業員の登録内容
+     * @param revokeTokens 発行済みの署名付きCookieを失効させるかどうか
      */
-    private void update(StudentView sv) {
+    private void update(StudentView sv, boolean revokeTokens) {
 
         em.getTransaction().begin();
-        Student s = findOneInternal(sv.getId());
-        StudentConverter.copyViewToModel(s, sv);
-        em.getTransaction().commit();
+        Student s;
+        try {
+            s = findOneInternal(sv.getId());
+            StudentConverter.copyViewToModel(s, sv);
+            if (revokeTokens) {
+                //署名付きCookieに含まれる番号・氏名・権限またはパスワードが変わるため、発行済みのCookieを失効させる
+                s.setTokenVersion(s.getTokenVersion() + 1);
+            }
+            em.getTransaction().commit();
+        } catch (PersistenceException e) {
+            //更新に失敗したデータを永続化コンテキストから取り除く
+            rollbackAndClear();
+            throw e;
+        }
+
+        if (revokeTokens) {
+            TokenVersionCache.invalidate(s.getId());
+        }
+
+        //変更後の番号を反映する(変更前の番号はフィルタから取り除けないため残る)
+        StudentCodeIndex.add(sv.getCode());
+        StudentListCache.invalidate();
 
     }
 }
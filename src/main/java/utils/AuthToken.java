@@ -0,0 +1,174 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.ServletContext;
+
+import actions.views.StudentView;
+import constants.AttributeConst;
+import constants.PropertyConst;
+import constants.SecurityConst;
+
+/**
+ * ログイン中の学生をHMACで署名したCookieの値として扱うクラス
+ * Cookieの値: base64url(id:バージョン:有効期限:権限:base64url(番号):base64url(氏名)).base64url(署名)
+ * 署名と有効期限の確認にセッションやDBを必要としないため、どのノードでも検証できる
+ * 失効はCookieのバージョンと学生テーブルのバージョンの比較で行う(TokenVersionCacheを参照)
+ */
+public class AuthToken {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    //ペイロードの区切り文字と項目数
+    private static final String SEPARATOR = ":";
+    private static final int FIELD_COUNT = 6;
+
+    /**
+     * ログイン中の学生(パスワード等は含まない)
+     */
+    private final StudentView student;
+
+    /**
+     * 発行時のバージョン
+     */
+    private final int version;
+
+    /**
+     * 有効期限(エポック秒)
+     */
+    private final long expiresAt;
+
+    private AuthToken(StudentView student, int version, long expiresAt) {
+        this.student = student;
+        this.version = version;
+        this.expiresAt = expiresAt;
+    }
+
+    public StudentView getStudent() {
+        return student;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    //署名付きCookieによる認証が有効かどうか(認証方式がtokenかつ秘密鍵が設定されている場合のみ有効)
+    public static boolean isEnabled(ServletContext context) {
+        return SecurityConst.AUTH_MODE_TOKEN.equals(context.getAttribute(PropertyConst.AUTH_MODE.getValue()))
+                && getSecret(context) != null;
+    }
+
+    //署名に使用する秘密鍵を取得する(未設定または短すぎる場合null)
+    public static String getSecret(ServletContext context) {
+        Object secret = context.getAttribute(PropertyConst.AUTH_SECRET.getValue());
+        if (secret == null || secret.toString().length() < SecurityConst.AUTH_SECRET_MIN_LENGTH) {
+            return null;
+        }
+        return secret.toString();
+    }
+
+    //ログインした学生の署名付きCookieの値を作成する
+    public static String issue(StudentView sv, int version, String secret) {
+        long expiresAt = System.currentTimeMillis() / 1000 + SecurityConst.AUTH_TOKEN_TTL_SECONDS;
+        String payload = String.join(SEPARATOR,
+                String.valueOf(sv.getId()),
+                String.valueOf(version),
+                String.valueOf(expiresAt),
+                String.valueOf(sv.getAdminFlag()),
+                encode(sv.getCode()),
+                encode(sv.getName()));
+        String body = encode(payload);
+
+        return body + "." + ENCODER.encodeToString(sign(body, secret));
+    }
+
+    //署名付きCookieの値を検証し、ログイン中の学生を返却する(署名が不正または有効期限切れの場合null)
+    public static AuthToken parse(String token, String secret) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+
+        try {
+            String body = token.substring(0, dot);
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(body, secret))) {
+                return null;
+            }
+
+            String[] fields = decode(body).split(SEPARATOR, -1);
+            if (fields.length != FIELD_COUNT) {
+                return null;
+            }
+
+            long expiresAt = Long.parseLong(fields[2]);
+            if (expiresAt < System.currentTimeMillis() / 1000) {
+                return null;
+            }
+
+            StudentView sv = new StudentView(
+                    Integer.valueOf(fields[0]),
+                    decode(fields[4]),
+                    decode(fields[5]),
+                    null,
+                    Integer.valueOf(fields[3]),
+                    null,
+                    null,
+                    AttributeConst.DEL_FLAG_FALSE.getIntegerValue());
+
+            return new AuthToken(sv, Integer.parseInt(fields[1]), expiresAt);
+
+        } catch (IllegalArgumentException e) {
+            //Base64や数値の形式が不正な場合
+            return null;
+        }
+    }
+
+    //CSRF対策用tokenの元となるランダムな値を作成する
+    public static String newCsrfSeed() {
+        byte[] seed = new byte[SecurityConst.CSRF_SEED_BYTES];
+        RANDOM.nextBytes(seed);
+        return ENCODER.encodeToString(seed);
+    }
+
+    //CSRF対策用tokenを作成する(元となる値の署名 同じ元の値からは常に同じtokenとなる)
+    public static String csrfToken(String seed, String secret) {
+        return ENCODER.encodeToString(sign("csrf." + seed, secret));
+    }
+
+    //文字列をHMACで署名する
+    private static byte[] sign(String value, String secret) {
+        try {
+            Mac mac = Mac.getInstance(SecurityConst.AUTH_HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), SecurityConst.AUTH_HMAC_ALGORITHM));
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            //HmacSHA256は全てのJava実行環境で利用できるため通常は発生しない
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String value) {
+        return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+    }
+}
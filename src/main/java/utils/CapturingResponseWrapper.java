@@ -0,0 +1,56 @@
+package utils;
+
+import java.io.CharArrayWriter;
+import java.io.PrintWriter;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * インクルードしたJSPの出力を文字列として取得するためのラッパー
+ * 描画結果は他の利用者にも返却するため、URLにセッションIDを付加しない
+ */
+public class CapturingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final CharArrayWriter buffer = new CharArrayWriter();
+
+    private final PrintWriter writer = new PrintWriter(buffer);
+
+    /**
+     * コンストラクタ
+     * @param response 元のレスポンス
+     */
+    public CapturingResponseWrapper(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        return writer;
+    }
+
+    @Override
+    public String encodeURL(String url) {
+        return url;
+    }
+
+    @Override
+    @Deprecated
+    public String encodeUrl(String url) {
+        return url;
+    }
+
+    @Override
+    public void flushBuffer() {
+        writer.flush();
+    }
+
+    /**
+     * 出力された内容を取得する
+     * @return 出力された内容
+     */
+    public String getContent() {
+        writer.flush();
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package utils;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * リクエストの接続元(クライアント)のアドレスを求めるクラス
+ * ロードバランサ等のプロキシを経由する場合、直接の接続元はプロキシのアドレスとなるため、
+ * 信頼するプロキシからの接続に限りX-Forwarded-Forの値を接続元とする
+ * (コンテナでRemoteIpValve等を設定している場合はgetRemoteAddrが既にクライアントのアドレスのため、信頼するプロキシは指定しない)
+ */
+public class ClientAddressUtil {
+
+    //プロキシが付加する接続元アドレスのヘッダ
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    /**
+     * 接続元のアドレスを取得する
+     * 直接の接続元が信頼するプロキシの場合、X-Forwarded-Forを右から順に見て、信頼するプロキシでない最初のアドレスとする
+     * (左側の値はクライアントが自由に設定できるため、信頼するプロキシが付加した部分のみを使用する)
+     * @param request リクエスト
+     * @param trustedProxies 信頼するプロキシのアドレス(カンマ区切り) nullまたは空の場合はgetRemoteAddrをそのまま使用する
+     * @return 接続元のアドレス
+     */
+    public static String getClientAddress(HttpServletRequest request, String trustedProxies) {
+        String remoteAddr = request.getRemoteAddr();
+        if (trustedProxies == null || trustedProxies.trim().equals("") || !isTrusted(remoteAddr, trustedProxies)) {
+            return remoteAddr;
+        }
+
+        String forwardedFor = request.getHeader(FORWARDED_FOR);
+        if (forwardedFor == null) {
+            return remoteAddr;
+        }
+
+        String[] hops = forwardedFor.split(",");
+        String client = remoteAddr;
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.equals("")) {
+                continue;
+            }
+            client = hop;
+            if (!isTrusted(hop, trustedProxies)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    //アドレスが信頼するプロキシに含まれるかどうか
+    private static boolean isTrusted(String addr, String trustedProxies) {
+        if (addr == null) {
+            return false;
+        }
+        for (String proxy : trustedProxies.split(",")) {
+            if (addr.equals(proxy.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
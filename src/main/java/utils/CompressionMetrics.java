@@ -0,0 +1,97 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * レスポンス圧縮の計測値を記録するクラス
+ * 圧縮前後のバイト数から圧縮率を、Deflaterの処理時間からCPU時間を求める
+ */
+public class CompressionMetrics {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    //スレッド毎のCPU時間を取得できるかどうか(取得できない場合は経過時間で代用する)
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported()
+            && THREADS.isThreadCpuTimeEnabled();
+
+    //圧縮したレスポンスの件数
+    private static final LongAdder COMPRESSED = new LongAdder();
+
+    //小さいため圧縮しなかったレスポンスの件数
+    private static final LongAdder SKIPPED_SMALL = new LongAdder();
+
+    //Content-Typeが対象外、または圧縮済みのため圧縮しなかったレスポンスの件数
+    private static final LongAdder SKIPPED_TYPE = new LongAdder();
+
+    //圧縮前のバイト数
+    private static final LongAdder BYTES_IN = new LongAdder();
+
+    //圧縮後のバイト数
+    private static final LongAdder BYTES_OUT = new LongAdder();
+
+    //圧縮に使用したCPU時間(ナノ秒)
+    private static final LongAdder CPU_NANOS = new LongAdder();
+
+    //レスポンス1件の圧縮に使用したCPU時間の分布
+    private static final LatencyHistogram CPU_HISTOGRAM = new LatencyHistogram();
+
+    //現在のスレッドのCPU時間(ナノ秒)を取得する
+    public static long cpuTime() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    //圧縮したレスポンス1件を記録する
+    public static void recordCompressed(long bytesIn, long bytesOut, long cpuNanos) {
+        COMPRESSED.increment();
+        BYTES_IN.add(bytesIn);
+        BYTES_OUT.add(bytesOut);
+        CPU_NANOS.add(cpuNanos);
+        CPU_HISTOGRAM.recordNanos(cpuNanos);
+    }
+
+    //小さいため圧縮しなかったレスポンス1件を記録する
+    public static void recordSkippedSmall() {
+        SKIPPED_SMALL.increment();
+    }
+
+    //対象外のため圧縮しなかったレスポンス1件を記録する
+    public static void recordSkippedType() {
+        SKIPPED_TYPE.increment();
+    }
+
+    public static long getCompressedCount() {
+        return COMPRESSED.sum();
+    }
+
+    public static long getSkippedSmallCount() {
+        return SKIPPED_SMALL.sum();
+    }
+
+    public static long getSkippedTypeCount() {
+        return SKIPPED_TYPE.sum();
+    }
+
+    public static long getBytesIn() {
+        return BYTES_IN.sum();
+    }
+
+    public static long getBytesOut() {
+        return BYTES_OUT.sum();
+    }
+
+    public static long getCpuNanos() {
+        return CPU_NANOS.sum();
+    }
+
+    public static LatencyHistogram getCpuHistogram() {
+        return CPU_HISTOGRAM;
+    }
+
+    //圧縮率(圧縮後のバイト数/圧縮前のバイト数) 記録がない場合1.0
+    public static double getRatio() {
+        long in = BYTES_IN.sum();
+        return in == 0 ? 1.0 : (double) BYTES_OUT.sum() / in;
+    }
+}
@@ -0,0 +1,115 @@
+package utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * コネクションプールの計測値を記録するクラス
+ * HikariCPから接続取得・使用・タイムアウトの通知を受け取る
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory, IMetricsTracker {
+
+    /**
+     * 接続取得の待ち時間
+     */
+    private final LatencyHistogram acquireHistogram = new LatencyHistogram();
+
+    /**
+     * 接続の使用時間(貸出から返却まで)
+     */
+    private final LatencyHistogram usageHistogram = new LatencyHistogram();
+
+    /**
+     * 接続取得のタイムアウト件数
+     */
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * プールの状態(稼働中・待機中・待ちスレッド数)
+     */
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return this;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquireHistogram.recordNanos(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        usageHistogram.record(elapsedBorrowedMillis * 1000L);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * 使用中の接続数を取得する
+     * @return 使用中の接続数
+     */
+    public int getActiveConnections() {
+        PoolStats ps = poolStats;
+        return ps == null ? 0 : ps.getActiveConnections();
+    }
+
+    /**
+     * 待機中の接続数を取得する
+     * @return 待機中の接続数
+     */
+    public int getIdleConnections() {
+        PoolStats ps = poolStats;
+        return ps == null ? 0 : ps.getIdleConnections();
+    }
+
+    /**
+     * 接続の合計数を取得する
+     * @return 接続の合計数
+     */
+    public int getTotalConnections() {
+        PoolStats ps = poolStats;
+        return ps == null ? 0 : ps.getTotalConnections();
+    }
+
+    /**
+     * 接続の取得を待っているスレッド数を取得する
+     * @return 待ちスレッド数
+     */
+    public int getPendingThreads() {
+        PoolStats ps = poolStats;
+        return ps == null ? 0 : ps.getPendingThreads();
+    }
+
+    /**
+     * 接続取得のタイムアウト件数を取得する
+     * @return タイムアウト件数
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * 接続取得の待ち時間のヒストグラムを取得する
+     * @return ヒストグラム
+     */
+    public LatencyHistogram getAcquireHistogram() {
+        return acquireHistogram;
+    }
+
+    /**
+     * 接続の使用時間のヒストグラムを取得する
+     * @return ヒストグラム
+     */
+    public LatencyHistogram getUsageHistogram() {
+        return usageHistogram;
+    }
+}
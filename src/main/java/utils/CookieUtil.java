@@ -0,0 +1,67 @@
+package utils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Cookieの読み書きを行うクラス
+ */
+public class CookieUtil {
+
+    /**
+     * 指定した名前のCookieの値を取得する
+     * @param request リクエスト
+     * @param name Cookie名
+     * @return Cookieの値 存在しない場合null
+     */
+    public static String get(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie c : cookies) {
+            if (name.equals(c.getName())) {
+                return c.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * HttpOnly・SameSite=Laxを指定したCookieを設定する
+     * (Servlet 4.0のCookieクラスはSameSite属性を扱えないため、Set-Cookieヘッダを直接出力する)
+     * @param request リクエスト(パスとHTTPSかどうかの判定に使用する)
+     * @param response レスポンス
+     * @param name Cookie名
+     * @param value Cookieの値(URLで使用できる文字のみであること)
+     * @param maxAgeSeconds 有効期間(秒) 0の場合はCookieを削除する -1の場合はブラウザを閉じるまで
+     */
+    public static void set(HttpServletRequest request, HttpServletResponse response,
+            String name, String value, long maxAgeSeconds) {
+        String path = request.getContextPath().equals("") ? "/" : request.getContextPath();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(name).append('=').append(value == null ? "" : value);
+        sb.append("; Path=").append(path);
+        if (maxAgeSeconds >= 0) {
+            sb.append("; Max-Age=").append(maxAgeSeconds);
+        }
+        sb.append("; HttpOnly; SameSite=Lax");
+        if (request.isSecure()) {
+            sb.append("; Secure");
+        }
+
+        response.addHeader("Set-Cookie", sb.toString());
+    }
+
+    /**
+     * 指定した名前のCookieを削除する
+     * @param request リクエスト
+     * @param response レスポンス
+     * @param name Cookie名
+     */
+    public static void remove(HttpServletRequest request, HttpServletResponse response, String name) {
+        set(request, response, name, "", 0);
+    }
+}
@@ -0,0 +1,65 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV(RFC 4180形式)の1行分の解析・出力を行うクラス
+ * 項目内の改行には対応しない
+ */
+public class CsvUtil {
+
+    /**
+     * CSVの1行を項目のリストに分割する
+     * ダブルクォートで囲まれた項目はカンマを含むことができ、""は"として扱う
+     * @param line CSVの1行
+     * @return 項目のリスト
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        fields.add(sb.toString());
+
+        return fields;
+    }
+
+    /**
+     * 値をCSVの1項目として出力できる形式に変換する
+     * カンマ・ダブルクォート・改行を含む場合のみダブルクォートで囲む
+     * @param value 値(nullの場合は空文字)
+     * @return CSVの1項目
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,82 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 一覧画面のシーク方式ページングで使用するカーソル文字列の作成・解析を行うクラス
+ * カーソルは「方向 + 基準となるid」をBase64(URL safe)で符号化した文字列
+ */
+public class CursorUtil {
+
+    /**
+     * 基準idより後ろ(古い方向)のページを表す方向文字
+     */
+    public static final char AFTER = 'a';
+
+    /**
+     * 基準idより前(新しい方向)のページを表す方向文字
+     */
+    public static final char BEFORE = 'b';
+
+    /**
+     * 方向と基準idからカーソル文字列を作成する
+     * @param direction 方向(AFTER または BEFORE)
+     * @param id 基準となるid
+     * @return カーソル文字列
+     */
+    public static String encode(char direction, int id) {
+        String raw = direction + Integer.toString(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * カーソル文字列の方向を取得する
+     * @param cursor カーソル文字列
+     * @return 方向(AFTER または BEFORE) 不正なカーソルの場合0
+     */
+    public static char getDirection(String cursor) {
+        String raw = decode(cursor);
+        if (raw == null) {
+            return 0;
+        }
+        return raw.charAt(0);
+    }
+
+    /**
+     * カーソル文字列の基準idを取得する
+     * @param cursor カーソル文字列
+     * @return 基準id 不正なカーソルの場合null
+     */
+    public static Integer getId(String cursor) {
+        String raw = decode(cursor);
+        if (raw == null) {
+            return null;
+        }
+        return Integer.valueOf(raw.substring(1));
+    }
+
+    /**
+     * カーソル文字列を復号し、形式を検証する
+     * @param cursor カーソル文字列
+     * @return 復号後の文字列 不正なカーソルの場合null
+     */
+    private static String decode(String cursor) {
+        if (cursor == null || cursor.equals("")) {
+            return null;
+        }
+
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (raw.length() < 2 || (raw.charAt(0) != AFTER && raw.charAt(0) != BEFORE)) {
+                return null;
+            }
+            Integer.parseInt(raw.substring(1));
+        } catch (IllegalArgumentException e) {
+            //Base64として不正、またはidが数値でない場合
+            return null;
+        }
+        return raw;
+    }
+}
@@ -1,26 +1,89 @@
 package utils;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+
+import com.zaxxer.hikari.HikariDataSource;
+
 import constants.JpaConst;
 
 public class DBUtil {
 
     private static EntityManagerFactory emf;
 
+    //コネクションプールの計測値(プールを使用していない場合null)
+    private static ConnectionPoolMetrics poolMetrics;
+
     //EntityManagerインスタンスを生成
     public static EntityManager createEntityManager() {
         return _getEntityManagerFactory().createEntityManager();
     }
 
+    //コネクションプールの計測値を取得(プールを使用していない場合null)
+    public static ConnectionPoolMetrics getPoolMetrics() {
+        _getEntityManagerFactory();
+        return poolMetrics;
+    }
+
+    //Hibernateの統計情報(2次キャッシュのヒット・ミス件数等)を取得
+    public static Statistics getStatistics() {
+        return _getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    //EntityManagerFactoryとコネクションプールを閉じる
+    public static synchronized void close() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+        emf = null;
+        poolMetrics = null;
+    }
+
+    //persistence.xmlの設定のうち、システムプロパティで上書きするもの(指定がなければ空)
+    public static Map<String, Object> getOverrides() {
+        Map<String, Object> overrides = new HashMap<>();
+        for (String name : JpaConst.PERSISTENCE_OVERRIDABLE_PROPS) {
+            String value = System.getProperty(name);
+            if (value != null) {
+                overrides.put(name, value);
+            }
+        }
+        return overrides;
+    }
+
     //EntityManagerFactoryインスタンスを生成
-    private static EntityManagerFactory _getEntityManagerFactory() {
+    private static synchronized EntityManagerFactory _getEntityManagerFactory() {
         if (emf == null) {
-            emf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME);
+            MigrationUtil.migrate();
+            emf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME, getOverrides());
+            poolMetrics = _registerPoolMetrics(emf);
         }
 
         return emf;
     }
+
+    //persistence.xmlでHikariCPが指定されている場合、計測値の記録を開始する
+    private static ConnectionPoolMetrics _registerPoolMetrics(EntityManagerFactory factory) {
+        ConnectionProvider cp = factory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class);
+
+        if (cp == null || !cp.isUnwrappableAs(HikariDataSource.class)) {
+            //Hibernate組み込みのコネクションプールを使用している場合
+            return null;
+        }
+
+        ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+        cp.unwrap(HikariDataSource.class).setMetricsTrackerFactory(metrics);
+        return metrics;
+    }
 }
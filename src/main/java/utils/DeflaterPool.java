@@ -0,0 +1,53 @@
+package utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+import constants.CompressionConst;
+
+/**
+ * Deflaterを再利用するためのプール
+ * Deflaterはネイティブメモリを確保するため、レスポンス毎に作成・破棄せず使い回す
+ * 圧縮方式(gzipはヘッダなしのdeflate、deflateはzlib形式)毎にプールを分ける
+ */
+public class DeflaterPool {
+
+    //gzip用(ヘッダ・トレーラは呼び出し側で出力する)
+    private static final BlockingQueue<Deflater> RAW = new ArrayBlockingQueue<>(CompressionConst.DEFLATER_POOL_SIZE);
+
+    //deflate(zlib形式)用
+    private static final BlockingQueue<Deflater> ZLIB = new ArrayBlockingQueue<>(CompressionConst.DEFLATER_POOL_SIZE);
+
+    //プールから取得できず新たに作成した件数
+    private static final LongAdder CREATED = new LongAdder();
+
+    //プールのDeflaterを取得する(空の場合は新たに作成する)
+    public static Deflater borrow(boolean nowrap) {
+        Deflater d = (nowrap ? RAW : ZLIB).poll();
+        if (d == null) {
+            CREATED.increment();
+            d = new Deflater(CompressionConst.COMPRESS_LEVEL, nowrap);
+        }
+        return d;
+    }
+
+    //Deflaterをプールに返却する(プールが一杯の場合は破棄する)
+    public static void release(Deflater d, boolean nowrap) {
+        d.reset();
+        if (!(nowrap ? RAW : ZLIB).offer(d)) {
+            d.end();
+        }
+    }
+
+    //新たに作成したDeflaterの件数
+    public static long getCreatedCount() {
+        return CREATED.sum();
+    }
+
+    //プールで待機しているDeflaterの数
+    public static int getIdleCount() {
+        return RAW.size() + ZLIB.size();
+    }
+}
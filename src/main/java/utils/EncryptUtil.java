@@ -1,12 +1,23 @@
 package utils;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 import javax.xml.bind.DatatypeConverter;
 
+import constants.SecurityConst;
+
 public class EncryptUtil {
 
+	    private static final SecureRandom RANDOM = new SecureRandom();
+
 	    //生のパスワード文字列とpepper文字列を連結した文字列をSHA-256関数でハッシュ化し、返却する
+	    //(PBKDF2導入前の形式 照合と移行のためにのみ使用する)
 	    public static String getPasswordEncrypt(String plainPass, String pepper) {
 	        String ret = "";
 
@@ -22,4 +33,73 @@ public class EncryptUtil {
 
 	        return ret;
 	    }
+
+	    //生のパスワード文字列とpepper文字列を連結した文字列をランダムなソルトを付けてPBKDF2でハッシュ化し、
+	    //「pbkdf2$反復回数$ソルト$ハッシュ値」の形式で返却する
+	    public static String hashPassword(String plainPass, String pepper) {
+	        if (plainPass == null || plainPass.equals("")) {
+	            return "";
+	        }
+
+	        byte[] salt = new byte[SecurityConst.HASH_SALT_BYTES];
+	        RANDOM.nextBytes(salt);
+	        byte[] hash = pbkdf2(plainPass + pepper, salt, SecurityConst.HASH_ITERATIONS);
+
+	        Base64.Encoder enc = Base64.getEncoder().withoutPadding();
+	        return SecurityConst.HASH_PREFIX + "$" + SecurityConst.HASH_ITERATIONS
+	                + "$" + enc.encodeToString(salt) + "$" + enc.encodeToString(hash);
+	    }
+
+	    //生のパスワード文字列が保存済みのハッシュ値(PBKDF2形式またはSHA-256形式)と一致するかを返却する
+	    public static boolean verifyPassword(String plainPass, String pepper, String stored) {
+	        if (plainPass == null || plainPass.equals("") || stored == null) {
+	            return false;
+	        }
+
+	        if (isLegacyHash(stored)) {
+	            byte[] expected = stored.getBytes(StandardCharsets.US_ASCII);
+	            byte[] actual = getPasswordEncrypt(plainPass, pepper).getBytes(StandardCharsets.US_ASCII);
+	            return MessageDigest.isEqual(expected, actual);
+	        }
+
+	        String[] parts = stored.split("\\$");
+	        if (parts.length != 4 || !parts[0].equals(SecurityConst.HASH_PREFIX)) {
+	            return false;
+	        }
+
+	        try {
+	            int iterations = Integer.parseInt(parts[1]);
+	            byte[] salt = Base64.getDecoder().decode(parts[2]);
+	            byte[] expected = Base64.getDecoder().decode(parts[3]);
+	            byte[] actual = pbkdf2(plainPass + pepper, salt, iterations);
+	            return MessageDigest.isEqual(expected, actual);
+	        } catch (IllegalArgumentException ex) {
+	            return false;
+	        }
+	    }
+
+	    //保存済みのハッシュ値を現在の形式・反復回数でハッシュ化し直す必要があるかを返却する
+	    public static boolean needsRehash(String stored) {
+	        if (stored == null || isLegacyHash(stored)) {
+	            return true;
+	        }
+	        return !stored.startsWith(SecurityConst.HASH_PREFIX + "$" + SecurityConst.HASH_ITERATIONS + "$");
+	    }
+
+	    //SHA-256形式(16進数64文字)のハッシュ値かどうか
+	    private static boolean isLegacyHash(String stored) {
+	        return stored.length() == 64 && stored.indexOf('$') < 0;
+	    }
+
+	    //PBKDF2でハッシュ値を計算する
+	    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+	        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, SecurityConst.HASH_KEY_BITS);
+	        try {
+	            return SecretKeyFactory.getInstance(SecurityConst.HASH_ALGORITHM).generateSecret(spec).getEncoded();
+	        } catch (NoSuchAlgorithmException | InvalidKeySpecException ex) {
+	            throw new IllegalStateException(ex);
+	        } finally {
+	            spec.clearPassword();
+	        }
+	    }
 }
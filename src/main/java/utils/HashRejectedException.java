@@ -0,0 +1,17 @@
+package utils;
+
+/**
+ * ハッシュ化専用スレッドプールが混雑しており、処理を受け付けられなかったことを表す例外
+ *
+ */
+public class HashRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public HashRejectedException(String message) {
+        super(message);
+    }
+
+    public HashRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,100 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 条件付きGET(ETag)の判定を行うクラス
+ * 画面の内容を決める値(検証子)から弱いETagを作成し、クライアントが保持している内容と一致すれば304を返却する
+ * 更新日時はログイン中の学生に依存しないため、If-Modified-Sinceだけでは判定せずLast-Modifiedも設定しない
+ * (別の学生でログインした際に表示した画面に対して304を返却しないようにする)
+ */
+public class HttpCacheUtil {
+
+    //起動日時 配備毎にJSPやCSSのURLが変わり得るため、検証子に含める
+    private static final long STARTED_AT = System.currentTimeMillis();
+
+    //ETagに使用するハッシュ値(SHA-256の16進表記)の長さ
+    private static final int ETAG_HASH_LENGTH = 16;
+
+    /**
+     * 検証子と更新日時からETagを設定し、If-None-Matchが一致すれば(クライアントが保持している内容が最新であれば)304を設定する
+     * ログイン中の学生毎に内容が異なるため、共有キャッシュには保存させず毎回確認させる
+     * If-Modified-SinceはETagを持たないクライアントが送るもので、ログイン中の学生を区別できないため判定に使用しない
+     * @param request リクエスト
+     * @param response レスポンス
+     * @param validator 画面の内容を決める値(ログイン中の学生、クエリ文字列を含むこと)
+     * @param lastModified 画面に表示するデータの更新日時(ETagに含める) 不明の場合null
+     * @return true: 304を設定した(本文の作成は不要) false: 本文を作成する
+     */
+    public static boolean checkNotModified(HttpServletRequest request, HttpServletResponse response,
+            String validator, LocalDateTime lastModified) {
+
+        //GET・HEAD以外(POSTで呼び出された場合等)は対象外とする
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return false;
+        }
+
+        String etag = "W/\"" + hash(STARTED_AT + ":" + lastModified + ":" + validator) + "\"";
+
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", "private, no-cache");
+        response.addHeader("Vary", "Cookie");
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified = ifNoneMatch != null && matches(ifNoneMatch, etag);
+
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        return notModified;
+    }
+
+    /**
+     * If-None-Matchのいずれかのエンティティタグが一致するかどうか(弱い比較)
+     * @param ifNoneMatch If-None-Matchヘッダの値
+     * @param etag 現在のETag
+     * @return true: 一致する false: 一致しない
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        String opaque = etag.substring(2);
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.equals("*")) {
+                return true;
+            }
+            if (t.startsWith("W/")) {
+                t = t.substring(2);
+            }
+            if (t.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 文字列のハッシュ値(SHA-256の16進表記の先頭)を求める
+     * @param value 文字列
+     * @return ハッシュ値
+     */
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.substring(0, ETAG_HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            //SHA-256は全てのJava実行環境で利用できるため通常は発生しない
+            throw new IllegalStateException(e);
+        }
+    }
+}
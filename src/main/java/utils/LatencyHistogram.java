@@ -0,0 +1,220 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 処理時間の分布を記録するヒストグラム
+ * マイクロ秒単位の値を対数+線形(2のべき乗毎に8分割)のバケットに振り分けて件数を数える
+ * 記録はロックを使わず、複数スレッドから同時に呼び出すことができる
+ */
+public class LatencyHistogram {
+
+    /**
+     * 2のべき乗1区間あたりの分割数(2^SUB_BITS)
+     */
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    /**
+     * 記録できる最大値の指数(2^40マイクロ秒 ≒ 12日)
+     */
+    private static final int MAX_EXP = 40;
+
+    /**
+     * バケットの数
+     */
+    private static final int BUCKET_COUNT = (MAX_EXP - SUB_BITS + 1) * SUB_COUNT + SUB_COUNT;
+
+    /**
+     * バケット毎の件数
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * 記録件数
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * 記録値の合計(マイクロ秒)
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * 記録値の最大値(マイクロ秒)
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * ナノ秒単位の処理時間を記録する
+     * @param nanos 処理時間(ナノ秒)
+     */
+    public void recordNanos(long nanos) {
+        record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * マイクロ秒単位の処理時間を記録する
+     * @param micros 処理時間(マイクロ秒)
+     */
+    public void record(long micros) {
+        if (micros < 0) {
+            micros = 0;
+        }
+        buckets.incrementAndGet(indexOf(micros));
+        count.increment();
+        sum.add(micros);
+        max.accumulate(micros);
+    }
+
+    /**
+     * 記録件数を取得する
+     * @return 記録件数
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 記録値の合計を取得する
+     * @return 合計(マイクロ秒)
+     */
+    public long getSumMicros() {
+        return sum.sum();
+    }
+
+    /**
+     * 記録値の最大値を取得する
+     * @return 最大値(マイクロ秒)
+     */
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+    /**
+     * 指定したパーセンタイルの値を取得する(バケットの上限値で近似する)
+     * @param percentile パーセンタイル(0.0～100.0)
+     * @return 処理時間(マイクロ秒) 記録がない場合0
+     */
+    public long getPercentileMicros(double percentile) {
+        long[] counts = snapshot();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * Math.min(Math.max(percentile, 0.0), 100.0) / 100.0);
+        if (rank < 1) {
+            rank = 1;
+        }
+
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    /**
+     * 指定した値以下の記録件数を取得する(Prometheusのle形式のバケット出力用)
+     * @param micros 上限値(マイクロ秒)
+     * @return 件数
+     */
+    public long countAtOrBelow(long micros) {
+        long result = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (upperBoundOf(i) > micros) {
+                break;
+            }
+            result += buckets.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * 指定した値以下で最も大きいバケットの境界を取得する(Prometheusのle形式のバケット出力用)
+     * 境界より小さい値は全てその境界までのバケットに含まれるため、countAtOrBelow(境界 - 1)が境界以下の件数と正確に一致する
+     * (バケットの途中の値を上限とすると、上限を超える値も同じバケットに含まれるため件数が正確にならない)
+     * @param micros 値(マイクロ秒)
+     * @return バケットの境界(マイクロ秒) 値が1未満の場合0
+     */
+    public static long bucketEdgeAtOrBelow(long micros) {
+        if (micros < 1) {
+            return 0;
+        }
+        if (micros > upperBoundOf(BUCKET_COUNT - 2)) {
+            return upperBoundOf(BUCKET_COUNT - 2) + 1;
+        }
+        //値を含むバケットの下限(=1つ前のバケットの上限+1)が値以下で最も大きい境界となる
+        int index = indexOf(micros);
+        return index == 0 ? 0 : upperBoundOf(index - 1) + 1;
+    }
+
+    /**
+     * 記録内容を消去する
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * バケット毎の件数の写しを取得する
+     * @return バケット毎の件数
+     */
+    private long[] snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * 値に該当するバケットの位置を取得する
+     * @param micros 値(マイクロ秒)
+     * @return バケットの位置
+     */
+    private static int indexOf(long micros) {
+        if (micros < SUB_COUNT) {
+            return (int) micros;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(micros);
+        if (exp > MAX_EXP) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (micros >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exp - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * バケットに含まれる値の上限を取得する
+     * @param index バケットの位置
+     * @return 上限値(マイクロ秒)
+     */
+    private static long upperBoundOf(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        if (index == BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        int exp = index / SUB_COUNT + SUB_BITS - 1;
+        int sub = index % SUB_COUNT;
+        long lower = ((long) (SUB_COUNT + sub)) << (exp - SUB_BITS);
+        return lower + (1L << (exp - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,342 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import constants.SecurityConst;
+
+/**
+ * ログイン試行回数を制限するクラス
+ * 接続元アドレス毎・学生番号と接続元アドレスの組毎・学生番号毎にトークンバケットを持ち、
+ * トークンが残っていない試行はハッシュ化やSQLの前に拒否する
+ * 試行時にトークンを消費し、認証に成功した場合等は返却するため、実質的には認証に失敗した試行のみを数える
+ *
+ * 学生番号毎の制限は主に学生番号と接続元アドレスの組で行うため、他のアドレスから誤ったパスワードを送っても
+ * 本人のアドレスからのログインは制限されない(学生番号全体の制限は多数のアドレスからの試行に対する上限として緩く設ける)
+ * 接続元アドレスの制限は、学内のNAT等で多数の学生が同じアドレスを共有する場合を想定して緩く設ける
+ *
+ * バケットの更新はCASで行うためロックを使用しない
+ * 満タンまで回復したバケットは作成前と同じ状態のため削除する
+ * 保持するバケット数が上限に達した場合は、試行を制限していないバケットを最後に使用した順に削除する
+ * 全てが制限中で削除できず絶対的な上限(THROTTLE_HARD_MAX_KEYS)に達した場合は新しいバケットを作成せず、
+ * 学生番号の制限は行わずに接続元アドレスの制限のみで判定する(接続元アドレスは共有の1つのバケットで制限する)
+ * 長い学生番号・接続元アドレスはハッシュ値をキーとし、1つのバケットが保持する文字数を制限する
+ */
+public class LoginThrottle {
+
+    /**
+     * 制限の種類毎のバケットと設定値
+     */
+    private static class Limit {
+        final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+        final int capacity;
+        final long refillNanos;
+        final LongAdder rejected = new LongAdder();
+
+        //バケット数が絶対的な上限に達した場合に、新しいキーの代わりに使用するバケット(nullの場合は制限しない)
+        final Bucket overflow;
+
+        //次に削除を試みる時刻(ナノ秒) 全てが制限中で削除できなかった場合、トークンが1つ回復するまで試みない
+        volatile long nextEvictAt = System.nanoTime();
+
+        Limit(int capacity, long refillNanos, boolean overflow) {
+            this.capacity = capacity;
+            this.refillNanos = refillNanos;
+            this.overflow = overflow ? new Bucket(capacity, System.nanoTime()) : null;
+        }
+    }
+
+    //接続元アドレス毎の制限
+    private static final Limit ADDR = new Limit(
+            SecurityConst.THROTTLE_ADDR_CAPACITY, SecurityConst.THROTTLE_ADDR_REFILL_NANOS, true);
+
+    //学生番号と接続元アドレスの組毎の制限
+    private static final Limit CODE_ADDR = new Limit(
+            SecurityConst.THROTTLE_CODE_ADDR_CAPACITY, SecurityConst.THROTTLE_CODE_ADDR_REFILL_NANOS, false);
+
+    //学生番号毎の制限
+    private static final Limit CODE = new Limit(
+            SecurityConst.THROTTLE_CODE_CAPACITY, SecurityConst.THROTTLE_CODE_REFILL_NANOS, false);
+
+    //バケット数が絶対的な上限に達し、新しいバケットを作成しなかった件数
+    private static final LongAdder OVERFLOWED = new LongAdder();
+
+    //許可した試行の件数
+    private static final LongAdder ALLOWED = new LongAdder();
+
+    //トークンを返却した(認証失敗として数えなかった)試行の件数
+    private static final LongAdder REFUNDED = new LongAdder();
+
+    //回復したバケットを最後に削除した時刻(ナノ秒)
+    private static final AtomicLong LAST_SWEEP = new AtomicLong(System.nanoTime());
+
+    //ログインの試行を許可するかどうかを判定し、許可する場合はトークンを1つずつ消費する
+    //いずれかの制限で拒否した場合、消費済みのトークンは返却する
+    public static boolean tryAcquire(String code, String remoteAddr) {
+        long now = System.nanoTime();
+        sweepIfNeeded(now);
+        code = boundedKey(code);
+        remoteAddr = boundedKey(remoteAddr);
+
+        //接続元アドレスを先に判定する(1つのアドレスから多数の番号を試す攻撃への対策)
+        if (!consume(ADDR, remoteAddr, now)) {
+            return false;
+        }
+
+        if (!consume(CODE_ADDR, pairKey(code, remoteAddr), now)) {
+            refund(ADDR, remoteAddr);
+            return false;
+        }
+
+        if (!consume(CODE, code, now)) {
+            refund(ADDR, remoteAddr);
+            refund(CODE_ADDR, pairKey(code, remoteAddr));
+            return false;
+        }
+
+        ALLOWED.increment();
+        return true;
+    }
+
+    //許可した試行のトークンを返却する(認証に成功した場合等、認証失敗として数えない場合に呼び出す)
+    public static void release(String code, String remoteAddr) {
+        code = boundedKey(code);
+        remoteAddr = boundedKey(remoteAddr);
+        refund(ADDR, remoteAddr);
+        refund(CODE_ADDR, pairKey(code, remoteAddr));
+        refund(CODE, code);
+        REFUNDED.increment();
+    }
+
+    //許可した試行の件数
+    public static long getAllowedCount() {
+        return ALLOWED.sum();
+    }
+
+    //トークンを返却した試行の件数
+    public static long getRefundedCount() {
+        return REFUNDED.sum();
+    }
+
+    //学生番号全体の制限により拒否した試行の件数
+    public static long getRejectedByCodeCount() {
+        return CODE.rejected.sum();
+    }
+
+    //学生番号と接続元アドレスの組の制限により拒否した試行の件数
+    public static long getRejectedByCodeAddrCount() {
+        return CODE_ADDR.rejected.sum();
+    }
+
+    //接続元アドレスの制限により拒否した試行の件数
+    public static long getRejectedByAddrCount() {
+        return ADDR.rejected.sum();
+    }
+
+    //保持しているバケットの数
+    public static int getTrackedKeyCount() {
+        return ADDR.buckets.size() + CODE_ADDR.buckets.size() + CODE.buckets.size();
+    }
+
+    //バケット数が絶対的な上限に達し、新しいバケットを作成しなかった件数
+    public static long getOverflowCount() {
+        return OVERFLOWED.sum();
+    }
+
+    //学生番号・接続元アドレスをキーに使用する文字列にする(最大文字数を超える場合はSHA-256のハッシュ値)
+    private static String boundedKey(String value) {
+        if (value == null || value.length() <= SecurityConst.THROTTLE_KEY_MAX_LENGTH) {
+            return value;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            //ハッシュ値のキーは最大文字数以下の値と重ならないよう先頭に#を付ける
+            return "#" + Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+            return value.substring(0, SecurityConst.THROTTLE_KEY_MAX_LENGTH);
+        }
+    }
+
+    //学生番号と接続元アドレスの組のキー(いずれかがない場合null)
+    private static String pairKey(String code, String remoteAddr) {
+        if (code == null || code.equals("") || remoteAddr == null) {
+            return null;
+        }
+        return remoteAddr + " " + code;
+    }
+
+    //キーに該当するバケットのトークンを1つ消費する(キーがない場合は制限しない)
+    private static boolean consume(Limit limit, String key, long now) {
+        if (key == null || key.equals("")) {
+            return true;
+        }
+        Bucket b = bucket(limit, key, now);
+        if (b == null) {
+            //バケット数が絶対的な上限に達している
+            OVERFLOWED.increment();
+            if (limit.overflow == null) {
+                return true;
+            }
+            b = limit.overflow;
+        }
+        if (b.tryConsume(now, limit.capacity, limit.refillNanos)) {
+            return true;
+        }
+        limit.rejected.increment();
+        return false;
+    }
+
+    //キーに該当するバケットにトークンを1つ返却する(削除済みの場合は満タンのため何もしない)
+    //上限に達して共有のバケットで判定した試行は返却しない(多数のキーを送る間は制限を緩めない)
+    private static void refund(Limit limit, String key) {
+        if (key == null || key.equals("")) {
+            return;
+        }
+        Bucket b = limit.buckets.get(key);
+        if (b != null) {
+            b.refund(limit.capacity);
+        }
+    }
+
+    //キーに該当するバケットを取得する(存在しない場合は満タンのバケットを作成する)
+    //バケット数が絶対的な上限に達している場合は作成せずnullを返却する
+    private static Bucket bucket(Limit limit, String key, long now) {
+        Bucket b = limit.buckets.get(key);
+        if (b != null) {
+            return b;
+        }
+        if (limit.buckets.size() >= SecurityConst.THROTTLE_MAX_KEYS && now - limit.nextEvictAt >= 0) {
+            evict(limit, now);
+        }
+        if (limit.buckets.size() >= SecurityConst.THROTTLE_HARD_MAX_KEYS) {
+            return null;
+        }
+        return limit.buckets.computeIfAbsent(key, k -> new Bucket(limit.capacity, now));
+    }
+
+    /**
+     * 保持するバケット数が上限に達した場合に、試行を制限していない(トークンが1つ以上ある)バケットを
+     * 最後に使用した順にTHROTTLE_EVICT_RATIOの割合だけ削除する
+     * 試行を制限中のバケットは削除しないため、多数のキーを送っても制限は解除されない
+     * (全てが制限中の場合は削除せず、絶対的な上限(THROTTLE_HARD_MAX_KEYS)まで超えて保持する
+     *  その後はトークンが1つ回復するまで、キー毎に全てのバケットを調べ直すことはしない)
+     */
+    private static synchronized void evict(Limit limit, long now) {
+        if (limit.buckets.size() < SecurityConst.THROTTLE_MAX_KEYS) {
+            //他のスレッドが削除済み
+            return;
+        }
+
+        List<Map.Entry<String, Bucket>> candidates = new ArrayList<>();
+        for (Map.Entry<String, Bucket> e : limit.buckets.entrySet()) {
+            if (!e.getValue().isLimiting(now, limit.capacity, limit.refillNanos)) {
+                candidates.add(e);
+            }
+        }
+        if (candidates.isEmpty()) {
+            //制限中のバケットはトークンが1つ回復するまで削除の対象にならない
+            limit.nextEvictAt = now + limit.refillNanos;
+            return;
+        }
+        candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccess()));
+
+        int count = Math.max(1, (int) (SecurityConst.THROTTLE_MAX_KEYS * SecurityConst.THROTTLE_EVICT_RATIO));
+        for (int i = 0; i < candidates.size() && i < count; i++) {
+            Map.Entry<String, Bucket> e = candidates.get(i);
+            limit.buckets.remove(e.getKey(), e.getValue());
+        }
+    }
+
+    //前回の削除から一定時間経過していれば満タンまで回復したバケットを削除する
+    private static void sweepIfNeeded(long now) {
+        long last = LAST_SWEEP.get();
+        if (now - last < SecurityConst.THROTTLE_SWEEP_INTERVAL_NANOS || !LAST_SWEEP.compareAndSet(last, now)) {
+            return;
+        }
+        sweep(ADDR, now);
+        sweep(CODE_ADDR, now);
+        sweep(CODE, now);
+    }
+
+    //満タンまで回復したバケット(作成前と同じ状態)を削除する
+    private static void sweep(Limit limit, long now) {
+        limit.buckets.entrySet().removeIf(e -> e.getValue().isFull(now, limit.capacity, limit.refillNanos));
+    }
+
+    /**
+     * トークンバケット
+     * 状態(トークン数と最終補充時刻)を1つの不変オブジェクトにまとめ、CASで更新する
+     */
+    private static class Bucket {
+
+        private static class State {
+            final double tokens;
+            final long refilledAt;
+
+            State(double tokens, long refilledAt) {
+                this.tokens = tokens;
+                this.refilledAt = refilledAt;
+            }
+        }
+
+        private final AtomicReference<State> state;
+
+        Bucket(int capacity, long now) {
+            this.state = new AtomicReference<>(new State(capacity, now));
+        }
+
+        //経過時間に応じてトークンを補充し、1つ消費できれば消費してtrueを返す
+        boolean tryConsume(long now, int capacity, long refillNanos) {
+            while (true) {
+                State cur = state.get();
+                double tokens = tokensAt(cur, now, capacity, refillNanos);
+                if (tokens < 1.0) {
+                    return false;
+                }
+                if (state.compareAndSet(cur, new State(tokens - 1.0, Math.max(now, cur.refilledAt)))) {
+                    return true;
+                }
+            }
+        }
+
+        //消費したトークンを1つ返却する
+        void refund(int capacity) {
+            while (true) {
+                State cur = state.get();
+                if (state.compareAndSet(cur, new State(Math.min(capacity, cur.tokens + 1.0), cur.refilledAt))) {
+                    return;
+                }
+            }
+        }
+
+        //試行を制限中(トークンが1つもない)かどうか
+        boolean isLimiting(long now, int capacity, long refillNanos) {
+            return tokensAt(state.get(), now, capacity, refillNanos) < 1.0;
+        }
+
+        //満タンまで回復しているかどうか
+        boolean isFull(long now, int capacity, long refillNanos) {
+            return tokensAt(state.get(), now, capacity, refillNanos) >= capacity;
+        }
+
+        //最後に試行された時刻
+        long lastAccess() {
+            return state.get().refilledAt;
+        }
+
+        private static double tokensAt(State s, long now, int capacity, long refillNanos) {
+            return Math.min(capacity, s.tokens + (double) (now - s.refilledAt) / refillNanos);
+        }
+    }
+}
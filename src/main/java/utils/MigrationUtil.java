@@ -0,0 +1,55 @@
+package utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.jpa.boot.internal.ParsedPersistenceXmlDescriptor;
+import org.hibernate.jpa.boot.internal.PersistenceXmlParser;
+
+import constants.JpaConst;
+
+/**
+ * DBスキーマのマイグレーションを行うクラス
+ * classpath:db/migration 配下のSQL(V{番号}__{説明}.sql)を番号順に1度だけ実行し、
+ * 実行済みのスクリプトはチェックサムで改変がないことを検証する
+ */
+public class MigrationUtil {
+
+    //マイグレーションスクリプトの配置場所
+    private static final String LOCATION = "classpath:db/migration";
+
+    //マイグレーション導入前に作成されたスキーマ(studentsのみ)の扱うバージョン
+    //student_counters(V2)は作成済みの場合と未作成の場合があるため、ベースラインに含めずV2以降を実行する
+    private static final String BASELINE_VERSION = "1";
+
+    //persistence.xmlの接続先に対して未実行のマイグレーションを実行する
+    public static void migrate() {
+        Map<?, ?> props = _getPersistenceUnitProperties();
+
+        Flyway flyway = Flyway.configure(MigrationUtil.class.getClassLoader())
+                .dataSource(
+                        (String) props.get("javax.persistence.jdbc.url"),
+                        (String) props.get("javax.persistence.jdbc.user"),
+                        (String) props.get("javax.persistence.jdbc.password"))
+                .locations(LOCATION)
+                .baselineOnMigrate(true)
+                .baselineVersion(BASELINE_VERSION)
+                .load();
+
+        flyway.migrate();
+    }
+
+    //persistence.xmlから永続化ユニットのプロパティを取得(システムプロパティでの上書きを反映する)
+    private static Map<?, ?> _getPersistenceUnitProperties() {
+        for (ParsedPersistenceXmlDescriptor unit : PersistenceXmlParser.locatePersistenceUnits(Collections.emptyMap())) {
+            if (JpaConst.PERSISTENCE_UNIT_NAME.equals(unit.getName())) {
+                Map<Object, Object> props = new HashMap<>(unit.getProperties());
+                props.putAll(DBUtil.getOverrides());
+                return props;
+            }
+        }
+        throw new IllegalStateException("persistence-unit not found: " + JpaConst.PERSISTENCE_UNIT_NAME);
+    }
+}
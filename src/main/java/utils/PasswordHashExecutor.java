@@ -0,0 +1,202 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import constants.SecurityConst;
+
+/**
+ * パスワードのハッシュ化を専用のスレッドプールで実行するクラス
+ * スレッド数と待ち行列の長さに上限を設け、上限を超えた場合は待たずに拒否するため、
+ * ログインが集中してもリクエストスレッドが長時間ハッシュ化の完了を待ち続けることはない
+ * CSVの取込等の一括処理も同じスレッドプールで実行するが、同時に実行する件数を制限し、残りのスレッドはログインに空けておく
+ */
+public class PasswordHashExecutor {
+
+    //ハッシュ化専用のスレッドプール
+    private static final ThreadPoolExecutor EXECUTOR = _createExecutor();
+
+    //1回のハッシュ化に要した時間
+    private static final LatencyHistogram HASH_HISTOGRAM = new LatencyHistogram();
+
+    //待ち行列で待機した時間
+    private static final LatencyHistogram QUEUE_WAIT_HISTOGRAM = new LatencyHistogram();
+
+    //拒否した件数(待ち行列の上限超過・待ち時間の超過)
+    private static final LongAdder REJECTED = new LongAdder();
+
+    //一括処理が同時に実行できるハッシュ化の件数(全ての一括処理で共有する)
+    private static final Semaphore BULK_PERMITS = new Semaphore(SecurityConst.HASH_BULK_MAX_CONCURRENCY);
+
+    //パスワードをハッシュ化する
+    public static String hash(String plainPass, String pepper) {
+        return execute(() -> EncryptUtil.hashPassword(plainPass, pepper));
+    }
+
+    //パスワードが保存済みのハッシュ値と一致するか照合する
+    public static boolean verify(String plainPass, String pepper, String stored) {
+        return execute(() -> EncryptUtil.verifyPassword(plainPass, pepper, stored));
+    }
+
+    /**
+     * 複数のパスワードをハッシュ化する(CSVの取込等の一括処理用)
+     * 同時に実行する件数をHASH_BULK_MAX_CONCURRENCYまでに制限するため、ログインの待ち時間は一括処理の件数によらない
+     * 待ち行列が埋まっている場合は拒否せず、空くまで待って再試行する
+     * @param plainPasses パスワードのリスト
+     * @param pepper pepper文字列
+     * @return ハッシュ値のリスト(パスワードのリストと同じ順)
+     */
+    public static List<String> hashAll(List<String> plainPasses, String pepper) {
+        List<Future<String>> futures = new ArrayList<>(plainPasses.size());
+        try {
+            for (String plainPass : plainPasses) {
+                futures.add(_submitBulk(() -> EncryptUtil.hashPassword(plainPass, pepper)));
+            }
+
+            List<String> hashes = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HashRejectedException("interrupted while waiting for password hash", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    //ハッシュ化を伴う処理を専用のスレッドプールで実行し、結果を返却する
+    //混雑している場合はHashRejectedExceptionを送出する
+    public static <T> T execute(Callable<T> task) {
+        long queuedAt = System.nanoTime();
+
+        Future<T> future;
+        try {
+            future = EXECUTOR.submit(() -> {
+                long startedAt = System.nanoTime();
+                QUEUE_WAIT_HISTOGRAM.recordNanos(startedAt - queuedAt);
+                try {
+                    return task.call();
+                } finally {
+                    HASH_HISTOGRAM.recordNanos(System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            REJECTED.increment();
+            throw new HashRejectedException("password hash queue is full", e);
+        }
+
+        try {
+            return future.get(SecurityConst.HASH_WAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            REJECTED.increment();
+            throw new HashRejectedException("password hash timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HashRejectedException("interrupted while waiting for password hash", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    //実行中のハッシュ化の件数
+    public static int getActiveCount() {
+        return EXECUTOR.getActiveCount();
+    }
+
+    //待ち行列にあるハッシュ化の件数
+    public static int getQueueDepth() {
+        return EXECUTOR.getQueue().size();
+    }
+
+    //拒否した件数
+    public static long getRejectedCount() {
+        return REJECTED.sum();
+    }
+
+    //1回のハッシュ化に要した時間のヒストグラム
+    public static LatencyHistogram getHashHistogram() {
+        return HASH_HISTOGRAM;
+    }
+
+    //待ち行列で待機した時間のヒストグラム
+    public static LatencyHistogram getQueueWaitHistogram() {
+        return QUEUE_WAIT_HISTOGRAM;
+    }
+
+    //スレッドプールを停止する
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    //一括処理の枠を確保してからスレッドプールに投入する(枠は処理の完了時に返却する)
+    private static <T> Future<T> _submitBulk(Callable<T> task) throws InterruptedException {
+        BULK_PERMITS.acquire();
+        Callable<T> timed = () -> {
+            long startedAt = System.nanoTime();
+            try {
+                return task.call();
+            } finally {
+                HASH_HISTOGRAM.recordNanos(System.nanoTime() - startedAt);
+                BULK_PERMITS.release();
+            }
+        };
+
+        while (true) {
+            try {
+                return EXECUTOR.submit(timed);
+            } catch (RejectedExecutionException e) {
+                if (EXECUTOR.isShutdown()) {
+                    BULK_PERMITS.release();
+                    throw new HashRejectedException("password hash executor is shut down", e);
+                }
+            }
+            //待ち行列がログインで埋まっている場合は、一括処理の側が譲って少し待つ
+            try {
+                Thread.sleep(SecurityConst.HASH_BULK_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                BULK_PERMITS.release();
+                throw e;
+            }
+        }
+    }
+
+    //スレッドプールを作成
+    private static ThreadPoolExecutor _createExecutor() {
+        AtomicInteger seq = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                SecurityConst.HASH_POOL_SIZE,
+                SecurityConst.HASH_POOL_SIZE,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(SecurityConst.HASH_QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
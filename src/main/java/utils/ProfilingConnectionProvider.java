@@ -0,0 +1,52 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+
+import constants.JpaConst;
+
+/**
+ * HikariCPのコネクションプールから接続を取得し、SqlProfilerの設定を読み込むConnectionProvider
+ * persistence.xmlのhibernate.connection.provider_classに指定する
+ * profiler.jdbc_wrapperをtrueにした場合のみ、取得した接続をSqlProfilerでラップする
+ */
+public class ProfilingConnectionProvider extends HikariCPConnectionProvider {
+
+    private static final long serialVersionUID = 1L;
+
+    //接続をラップするかどうか
+    private boolean wrap;
+
+    /**
+     * プールの設定を行い、遅いSQLの閾値(profiler.slow_query_millis)と接続をラップするかどうか(profiler.jdbc_wrapper)を読み込む
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void configure(Map props) {
+        super.configure(props);
+
+        Object millis = props.get(JpaConst.PROFILER_SLOW_QUERY_MILLIS);
+        if (millis != null) {
+            try {
+                SqlProfiler.setSlowQueryMillis(Long.parseLong(millis.toString().trim()));
+            } catch (NumberFormatException e) {
+                e.printStackTrace();
+            }
+        }
+
+        Object wrapper = props.get(JpaConst.PROFILER_JDBC_WRAPPER);
+        wrap = wrapper != null && Boolean.parseBoolean(wrapper.toString().trim());
+    }
+
+    /**
+     * プールから接続を取得する(profiler.jdbc_wrapperがtrueの場合は件数を記録するようラップして返却する)
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection conn = super.getConnection();
+        return wrap ? SqlProfiler.wrap(conn) : conn;
+    }
+}
@@ -0,0 +1,32 @@
+package utils;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * SQLの実行の開始・終了をSqlProfilerに通知するSessionEventListener
+ * persistence.xmlのhibernate.session.events.autoに指定する(セッション毎に作成される)
+ */
+public class ProfilingSessionListener extends BaseSessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        SqlProfiler.executionStarted();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlProfiler.executionEnded();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        SqlProfiler.executionStarted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlProfiler.executionEnded();
+    }
+}
@@ -0,0 +1,18 @@
+package utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernateが準備するSQLをSqlProfilerに記録するStatementInspector
+ * persistence.xmlのhibernate.session_factory.statement_inspectorに指定する(SQL文は変更しない)
+ */
+public class ProfilingStatementInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String inspect(String sql) {
+        SqlProfiler.prepared(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,299 @@
+package utils;
+
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hibernate.stat.Statistics;
+
+import constants.MetricsConst;
+
+/**
+ * 各処理の計測値をPrometheusのテキスト形式(exposition format 0.0.4)で出力するクラス
+ * 処理時間は秒単位のヒストグラムとして、件数は累積値(counter)または現在値(gauge)として出力する
+ */
+public class PrometheusWriter {
+
+    private final PrintWriter out;
+
+    /**
+     * コンストラクタ
+     * @param out 出力先
+     */
+    public PrometheusWriter(PrintWriter out) {
+        this.out = out;
+    }
+
+    /**
+     * 全ての計測値を出力する
+     */
+    public void writeAll() {
+        writeRequests();
+        writeConnectionPool();
+        writePasswordHash();
+        writeLoginThrottle();
+        writeCodeIndex();
+        writeCompression();
+        writeListCache();
+        writeSql();
+        writeHibernate();
+        out.flush();
+    }
+
+    /**
+     * action/command毎のリクエストの計測値を出力する
+     */
+    private void writeRequests() {
+        String duration = MetricsConst.METRIC_PREFIX + "http_request_duration_seconds";
+        header(duration, "histogram", "Time spent processing a request, by action and command.");
+        for (RequestMetrics.Route r : RequestMetrics.getRoutes()) {
+            histogramSamples(duration, routeLabels(r), r.getLatency());
+        }
+
+        String inFlight = MetricsConst.METRIC_PREFIX + "http_requests_in_flight";
+        header(inFlight, "gauge", "Requests currently being processed, by action and command.");
+        for (RequestMetrics.Route r : RequestMetrics.getRoutes()) {
+            sample(inFlight, routeLabels(r), r.getInFlight());
+        }
+
+        String errors = MetricsConst.METRIC_PREFIX + "http_request_errors_total";
+        header(errors, "counter", "Requests that ended with an exception, by action and command.");
+        for (RequestMetrics.Route r : RequestMetrics.getRoutes()) {
+            sample(errors, routeLabels(r), r.getErrors());
+        }
+
+        String responses = MetricsConst.METRIC_PREFIX + "http_responses_total";
+        header(responses, "counter", "Responses by action, command and status code.");
+        for (RequestMetrics.Route r : RequestMetrics.getRoutes()) {
+            for (Map.Entry<Integer, LongAdder> e : r.getStatuses().entrySet()) {
+                sample(responses, routeLabels(r) + ",status=\"" + e.getKey() + "\"", e.getValue().sum());
+            }
+        }
+
+        String statements = MetricsConst.METRIC_PREFIX + "http_request_statements_total";
+        header(statements, "counter", "SQL statements executed while processing requests, by action and command.");
+        for (RequestMetrics.Route r : RequestMetrics.getRoutes()) {
+            sample(statements, routeLabels(r), r.getStatements());
+        }
+
+        String overBudget = MetricsConst.METRIC_PREFIX + "http_requests_over_statement_budget_total";
+        header(overBudget, "counter", "Requests that executed more SQL statements than the budget, by action and command.");
+        for (RequestMetrics.Route r : RequestMetrics.getRoutes()) {
+            sample(overBudget, routeLabels(r), r.getOverBudget());
+        }
+    }
+
+    /**
+     * コネクションプールの計測値を出力する(プールを使用していない場合は出力しない)
+     */
+    private void writeConnectionPool() {
+        ConnectionPoolMetrics pool = DBUtil.getPoolMetrics();
+        if (pool == null) {
+            return;
+        }
+        gauge("db_pool_active_connections", "Connections currently borrowed from the pool.", pool.getActiveConnections());
+        gauge("db_pool_idle_connections", "Idle connections in the pool.", pool.getIdleConnections());
+        gauge("db_pool_total_connections", "Total connections in the pool.", pool.getTotalConnections());
+        gauge("db_pool_pending_threads", "Threads waiting for a connection.", pool.getPendingThreads());
+        counter("db_pool_timeouts_total", "Connection acquisitions that timed out.", pool.getTimeouts());
+        histogram("db_pool_acquire_seconds", "Time spent waiting for a connection.", pool.getAcquireHistogram());
+        histogram("db_pool_usage_seconds", "Time a connection was held before being returned.", pool.getUsageHistogram());
+    }
+
+    /**
+     * パスワードのハッシュ化専用スレッドプールの計測値を出力する
+     */
+    private void writePasswordHash() {
+        gauge("password_hash_active", "Password hashes currently running.", PasswordHashExecutor.getActiveCount());
+        gauge("password_hash_queue_depth", "Password hashes waiting in the queue.", PasswordHashExecutor.getQueueDepth());
+        counter("password_hash_rejected_total", "Password hashes rejected or timed out.", PasswordHashExecutor.getRejectedCount());
+        histogram("password_hash_seconds", "Time spent computing one password hash.", PasswordHashExecutor.getHashHistogram());
+        histogram("password_hash_queue_wait_seconds", "Time a password hash waited in the queue.", PasswordHashExecutor.getQueueWaitHistogram());
+    }
+
+    /**
+     * ログイン試行回数の制限の計測値を出力する
+     */
+    private void writeLoginThrottle() {
+        counter("login_throttle_allowed_total", "Login attempts allowed by the throttle.", LoginThrottle.getAllowedCount());
+
+        String rejected = MetricsConst.METRIC_PREFIX + "login_throttle_rejected_total";
+        header(rejected, "counter", "Login attempts rejected by the throttle, by the limit that was hit.");
+        sample(rejected, "reason=\"code\"", LoginThrottle.getRejectedByCodeCount());
+        sample(rejected, "reason=\"code_address\"", LoginThrottle.getRejectedByCodeAddrCount());
+        sample(rejected, "reason=\"address\"", LoginThrottle.getRejectedByAddrCount());
+
+        counter("login_throttle_refunded_total", "Allowed login attempts not counted as failures.", LoginThrottle.getRefundedCount());
+        gauge("login_throttle_tracked_keys", "Student codes and addresses currently tracked.", LoginThrottle.getTrackedKeyCount());
+        counter("login_throttle_overflow_total", "Login attempts checked against the shared address bucket because the key cap was reached.", LoginThrottle.getOverflowCount());
+    }
+
+    /**
+     * 学生番号のブルームフィルタの計測値を出力する
+     */
+    private void writeCodeIndex() {
+        gauge("code_index_loaded", "1 if the student code Bloom filter has been built.", StudentCodeIndex.isLoaded() ? 1 : 0);
+        gauge("code_index_inserted", "Student codes inserted into the Bloom filter.", StudentCodeIndex.getInsertedCount());
+
+        String lookups = MetricsConst.METRIC_PREFIX + "code_index_lookups_total";
+        header(lookups, "counter", "Bloom filter lookups, by result (absent lookups skip the database query).");
+        sample(lookups, "result=\"absent\"", StudentCodeIndex.getNegativeCount());
+        sample(lookups, "result=\"maybe_present\"", StudentCodeIndex.getPositiveCount());
+        counter("code_index_stale_total", "Codes the Bloom filter reported absent that the unique constraint rejected on insert.", StudentCodeIndex.getStaleCount());
+    }
+
+    /**
+     * レスポンス圧縮の計測値を出力する
+     */
+    private void writeCompression() {
+        counter("compression_responses_total", "Responses compressed.", CompressionMetrics.getCompressedCount());
+
+        String skipped = MetricsConst.METRIC_PREFIX + "compression_skipped_total";
+        header(skipped, "counter", "Responses not compressed, by reason.");
+        sample(skipped, "reason=\"small\"", CompressionMetrics.getSkippedSmallCount());
+        sample(skipped, "reason=\"type\"", CompressionMetrics.getSkippedTypeCount());
+
+        counter("compression_bytes_in_total", "Bytes before compression.", CompressionMetrics.getBytesIn());
+        counter("compression_bytes_out_total", "Bytes after compression.", CompressionMetrics.getBytesOut());
+        histogram("compression_cpu_seconds", "CPU time spent compressing one response.", CompressionMetrics.getCpuHistogram());
+        counter("compression_deflaters_created_total", "Deflaters created because the pool was empty.", DeflaterPool.getCreatedCount());
+        gauge("compression_deflaters_idle", "Deflaters waiting in the pool.", DeflaterPool.getIdleCount());
+    }
+
+    /**
+     * 学生一覧の描画結果のキャッシュの計測値を出力する
+     */
+    private void writeListCache() {
+        String lookups = MetricsConst.METRIC_PREFIX + "student_list_cache_lookups_total";
+        header(lookups, "counter", "Rendered student list lookups, by result.");
+        sample(lookups, "result=\"hit\"", StudentListCache.getHitCount());
+        sample(lookups, "result=\"miss\"", StudentListCache.getMissCount());
+
+        counter("student_list_cache_evictions_total", "Rendered student lists evicted to stay within the size limit.", StudentListCache.getEvictionCount());
+        gauge("student_list_cache_entries", "Rendered student lists currently cached.", StudentListCache.size());
+        gauge("student_list_cache_chars", "Characters held by the rendered student list cache.", StudentListCache.getTotalChars());
+        gauge("token_version_cache_entries", "Signed-cookie versions currently cached.", TokenVersionCache.size());
+    }
+
+    /**
+     * SQLの種類(名前付きクエリ名等)毎の計測値を出力する
+     */
+    private void writeSql() {
+        String duration = MetricsConst.METRIC_PREFIX + "sql_query_duration_seconds";
+        header(duration, "histogram", "Time spent executing SQL, by named query or entity operation.");
+        for (SqlProfiler.QueryStats q : SqlProfiler.getQueries()) {
+            histogramSamples(duration, queryLabel(q), q.getLatency());
+        }
+
+        String rows = MetricsConst.METRIC_PREFIX + "sql_query_rows_total";
+        header(rows, "counter", "Rows read or written, by named query or entity operation.");
+        for (SqlProfiler.QueryStats q : SqlProfiler.getQueries()) {
+            sample(rows, queryLabel(q), q.getRows());
+        }
+
+        String errors = MetricsConst.METRIC_PREFIX + "sql_query_errors_total";
+        header(errors, "counter", "SQL executions that threw, by named query or entity operation.");
+        for (SqlProfiler.QueryStats q : SqlProfiler.getQueries()) {
+            sample(errors, queryLabel(q), q.getErrors());
+        }
+    }
+
+    /**
+     * Hibernateの統計情報を出力する(統計情報を収集していない場合は出力しない)
+     */
+    private void writeHibernate() {
+        Statistics stats = DBUtil.getStatistics();
+        if (!stats.isStatisticsEnabled()) {
+            return;
+        }
+
+        String l2 = MetricsConst.METRIC_PREFIX + "hibernate_second_level_cache_total";
+        header(l2, "counter", "Second-level cache lookups, by result.");
+        sample(l2, "result=\"hit\"", stats.getSecondLevelCacheHitCount());
+        sample(l2, "result=\"miss\"", stats.getSecondLevelCacheMissCount());
+
+        String query = MetricsConst.METRIC_PREFIX + "hibernate_query_cache_total";
+        header(query, "counter", "Query cache lookups, by result.");
+        sample(query, "result=\"hit\"", stats.getQueryCacheHitCount());
+        sample(query, "result=\"miss\"", stats.getQueryCacheMissCount());
+
+        counter("hibernate_query_executions_total", "Queries executed against the database.", stats.getQueryExecutionCount());
+        counter("hibernate_statements_prepared_total", "JDBC statements prepared.", stats.getPrepareStatementCount());
+    }
+
+    private void counter(String name, String help, long value) {
+        String full = MetricsConst.METRIC_PREFIX + name;
+        header(full, "counter", help);
+        sample(full, null, value);
+    }
+
+    private void gauge(String name, String help, long value) {
+        String full = MetricsConst.METRIC_PREFIX + name;
+        header(full, "gauge", help);
+        sample(full, null, value);
+    }
+
+    private void histogram(String name, String help, LatencyHistogram h) {
+        String full = MetricsConst.METRIC_PREFIX + name;
+        header(full, "histogram", help);
+        histogramSamples(full, null, h);
+    }
+
+    /**
+     * ヒストグラムのバケット(上限値以下の累積件数)・合計・件数を出力する
+     * @param name 名前
+     * @param labels ラベル(ない場合null)
+     * @param h ヒストグラム
+     */
+    private void histogramSamples(String name, String labels, LatencyHistogram h) {
+        //件数を先に取得し、出力中に記録された分で+Infの件数が各バケットより小さくならないようにする
+        long count = h.getCount();
+        String prefix = labels == null ? "" : labels + ",";
+        //leにはヒストグラムの実際のバケット境界を出力し、境界以下の件数を正確に出力する
+        long prevEdge = 0;
+        for (double le : MetricsConst.LATENCY_BUCKETS_SECONDS) {
+            long edge = LatencyHistogram.bucketEdgeAtOrBelow(Math.round(le * 1_000_000));
+            if (edge <= prevEdge) {
+                continue;
+            }
+            prevEdge = edge;
+            long bucket = Math.min(h.countAtOrBelow(edge - 1), count);
+            out.print(name + "_bucket{" + prefix + "le=\"" + seconds(edge) + "\"} " + bucket + "\n");
+        }
+        out.print(name + "_bucket{" + prefix + "le=\"+Inf\"} " + count + "\n");
+        sample(name + "_sum", labels, h.getSumMicros() / 1_000_000.0);
+        sample(name + "_count", labels, count);
+    }
+
+    //マイクロ秒を秒単位の文字列(指数表記なし)にする
+    private static String seconds(long micros) {
+        return BigDecimal.valueOf(micros, 6).stripTrailingZeros().toPlainString();
+    }
+
+    private void header(String name, String type, String help) {
+        out.print("# HELP " + name + " " + help + "\n");
+        out.print("# TYPE " + name + " " + type + "\n");
+    }
+
+    private void sample(String name, String labels, long value) {
+        out.print(name + (labels == null ? "" : "{" + labels + "}") + " " + value + "\n");
+    }
+
+    private void sample(String name, String labels, double value) {
+        out.print(name + (labels == null ? "" : "{" + labels + "}") + " " + value + "\n");
+    }
+
+    private static String routeLabels(RequestMetrics.Route r) {
+        return "action=\"" + escape(r.getAction()) + "\",command=\"" + escape(r.getCommand()) + "\"";
+    }
+
+    private static String queryLabel(SqlProfiler.QueryStats q) {
+        return "query=\"" + escape(q.getName()) + "\"";
+    }
+
+    //ラベルの値に使用できない文字をエスケープする
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,130 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import constants.MetricsConst;
+
+/**
+ * action/command毎のリクエストの計測値(処理時間・処理中の件数・例外の件数・ステータスコード毎の件数・SQLの件数)を記録するクラス
+ * 計測対象はActionRegistryに登録されたaction/commandと、登録されていないものをまとめた分のみとし、
+ * リクエストパラメータの値によって計測値の種類が増え続けないようにする
+ */
+public class RequestMetrics {
+
+    /**
+     * action/command 1組分の計測値
+     */
+    public static class Route {
+        private final String action;
+        private final String command;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder errors = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder overBudget = new LongAdder();
+
+        Route(String action, String command) {
+            this.action = action;
+            this.command = command;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        //処理時間のヒストグラム
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        //処理中のリクエストの件数
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        //例外が発生したリクエストの件数
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        //ステータスコードと件数の対応表
+        public Map<Integer, LongAdder> getStatuses() {
+            return statuses;
+        }
+
+        //実行したSQLの件数の合計
+        public long getStatements() {
+            return statements.sum();
+        }
+
+        //SQLの件数が上限を超えたリクエストの件数
+        public long getOverBudget() {
+            return overBudget.sum();
+        }
+    }
+
+    //"action/command" と計測値の対応表
+    private static final Map<String, Route> ROUTES = new ConcurrentHashMap<>();
+
+    //登録されていないaction/commandの計測値
+    private static final Route UNKNOWN = new Route(MetricsConst.ROUTE_UNKNOWN_ACTION, MetricsConst.ROUTE_UNKNOWN_COMMAND);
+
+    //計測対象のaction/commandを登録する(起動時にActionRegistryの一覧を渡すこと)
+    public static void register(List<String> routes) {
+        for (String route : routes) {
+            int slash = route.indexOf('/');
+            ROUTES.computeIfAbsent(route, r -> new Route(r.substring(0, slash), r.substring(slash + 1)));
+        }
+    }
+
+    //action/commandの計測値を取得する(登録されていない場合はまとめた分)
+    public static Route get(String action, String command) {
+        if (action == null || command == null) {
+            return UNKNOWN;
+        }
+        Route route = ROUTES.get(action + "/" + command);
+        return route == null ? UNKNOWN : route;
+    }
+
+    //リクエストの処理開始を記録し、開始時刻(ナノ秒)を返却する
+    public static long begin(Route route) {
+        route.inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    //リクエストの処理終了を記録する
+    public static void end(Route route, long startNanos, int status, boolean error) {
+        route.latency.recordNanos(System.nanoTime() - startNanos);
+        route.inFlight.decrementAndGet();
+        if (error) {
+            route.errors.increment();
+        }
+        route.statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    //リクエストで実行したSQLの件数を記録する
+    public static void recordStatements(Route route, StatementCounter.Scope scope) {
+        route.statements.add(scope.getCount());
+        if (scope.isOverBudget()) {
+            route.overBudget.increment();
+        }
+    }
+
+    //全ての計測値(登録されていないものをまとめた分を含む)
+    public static List<Route> getRoutes() {
+        List<Route> routes = new ArrayList<>(ROUTES.values());
+        routes.sort((a, b) -> (a.action + "/" + a.command).compareTo(b.action + "/" + b.command));
+        routes.add(UNKNOWN);
+        return routes;
+    }
+}
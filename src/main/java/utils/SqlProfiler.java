@@ -0,0 +1,424 @@
+package utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import constants.JpaConst;
+
+/**
+ * SQLの実行回数・処理時間・件数をSQLの種類毎に記録するクラス
+ * SQLの種類は、Hibernateがコメント(hibernate.use_sql_comments)として付加する名前付きクエリ名
+ * (例: student.getAll)やエンティティの操作(例: load models.Student)とし、コメントがないSQLはSQL文そのものとする
+ * Hibernateが準備したSQL(ProfilingStatementInspector)を種類毎に振り分けてStatementCounterの範囲に記録し、
+ * 実行の開始・終了(ProfilingSessionListener)から処理時間を記録する JDBCの呼び出しはラップしない
+ * 処理時間が閾値を超えたSQLは、バインドパラメータの数(値は出力しない)をあわせてログに出力する
+ * 取得・更新した件数と例外の回数は、profiler.jdbc_wrapperをtrueにして接続をラップした場合のみ記録する
+ * (Session#doWork等でHibernateを介さずに実行したSQLは、ラップした場合の件数のみ記録する)
+ */
+public class SqlProfiler {
+
+    private static final Logger SLOW_LOG = Logger.getLogger(SqlProfiler.class.getName());
+
+    /**
+     * SQLの種類1件分の計測値
+     */
+    public static class QueryStats {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+
+        QueryStats(String name) {
+            this.name = name;
+        }
+
+        //SQLの種類(名前付きクエリ名等)
+        public String getName() {
+            return name;
+        }
+
+        //実行時間のヒストグラム(実行回数を含む)
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        //取得または更新した件数の合計
+        public long getRows() {
+            return rows.sum();
+        }
+
+        //例外が発生した回数
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        //処理時間が閾値を超えた回数
+        public long getSlow() {
+            return slow.sum();
+        }
+    }
+
+    //SQLの種類と計測値の対応表
+    private static final Map<String, QueryStats> QUERIES = new ConcurrentHashMap<>();
+
+    //種類の上限を超えた分をまとめて記録する計測値
+    private static final QueryStats OTHER = new QueryStats("other");
+
+    //遅いSQLとしてログに出力する処理時間(ナノ秒)
+    private static volatile long slowQueryNanos = JpaConst.PROFILER_SLOW_QUERY_MILLIS_DEFAULT * 1_000_000L;
+
+    //遅いSQLとしてログに出力する処理時間(ミリ秒)を設定する
+    public static void setSlowQueryMillis(long millis) {
+        slowQueryNanos = millis * 1_000_000L;
+    }
+
+    //遅いSQLとしてログに出力する処理時間(ミリ秒)
+    public static long getSlowQueryMillis() {
+        return slowQueryNanos / 1_000_000L;
+    }
+
+    //全ての計測値(合計処理時間の降順)
+    public static List<QueryStats> getQueries() {
+        List<QueryStats> queries = new ArrayList<>(QUERIES.values());
+        queries.sort(Comparator.comparingLong((QueryStats q) -> q.latency.getSumMicros()).reversed());
+        if (OTHER.latency.getCount() > 0) {
+            queries.add(OTHER);
+        }
+        return queries;
+    }
+
+    //全ての計測値を消去する
+    public static void reset() {
+        QUERIES.clear();
+        OTHER.latency.reset();
+        OTHER.rows.reset();
+        OTHER.errors.reset();
+        OTHER.slow.reset();
+    }
+
+    /**
+     * 全ての計測値を表形式の文字列で返却する(処理時間はミリ秒)
+     * @return 計測値の一覧
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-48s %10s %10s %6s %6s %10s %10s %10s %10s %10s %12s%n",
+                "query", "count", "rows", "errors", "slow", "mean", "p50", "p95", "p99", "max", "total"));
+        for (QueryStats q : getQueries()) {
+            LatencyHistogram h = q.latency;
+            long count = h.getCount();
+            sb.append(String.format("%-48s %10d %10d %6d %6d %10.3f %10.3f %10.3f %10.3f %10.3f %12.1f%n",
+                    q.name,
+                    count,
+                    q.getRows(),
+                    q.getErrors(),
+                    q.getSlow(),
+                    count == 0 ? 0.0 : h.getSumMicros() / 1000.0 / count,
+                    h.getPercentileMicros(50) / 1000.0,
+                    h.getPercentileMicros(95) / 1000.0,
+                    h.getPercentileMicros(99) / 1000.0,
+                    h.getMaxMicros() / 1000.0,
+                    h.getSumMicros() / 1000.0));
+        }
+        sb.append("slow query threshold: ").append(getSlowQueryMillis()).append(" ms\n");
+        return sb.toString();
+    }
+
+    /**
+     * SQLの種類の計測値を取得する(上限を超えた場合はまとめた分)
+     * @param name SQLの種類
+     * @return 計測値
+     */
+    private static QueryStats stats(String name) {
+        QueryStats q = QUERIES.get(name);
+        if (q != null) {
+            return q;
+        }
+        if (QUERIES.size() >= JpaConst.PROFILER_MAX_QUERIES) {
+            return OTHER;
+        }
+        return QUERIES.computeIfAbsent(name, QueryStats::new);
+    }
+
+    /**
+     * SQLの種類を決める
+     * 先頭のコメント(/* 名前 *&#47;)があればその内容、なければ空白をまとめたSQL文とする
+     * @param sql SQL文
+     * @return SQLの種類
+     */
+    static String nameOf(String sql) {
+        if (sql == null) {
+            return "unknown";
+        }
+        String s = sql.trim();
+        if (s.startsWith("/*")) {
+            int end = s.indexOf("*/");
+            if (end > 2) {
+                return s.substring(2, end).trim();
+            }
+        }
+        return truncate(s.replaceAll("\\s+", " "));
+    }
+
+    private static String truncate(String sql) {
+        return sql.length() > JpaConst.PROFILER_SQL_LOG_LENGTH
+                ? sql.substring(0, JpaConst.PROFILER_SQL_LOG_LENGTH) + "..."
+                : sql;
+    }
+
+
+    /**
+     * プレースホルダ(?)の数を数える(文字列リテラル・コメント内のものは除く)
+     * @param sql SQL文
+     * @return バインドパラメータの数
+     */
+    static int paramCount(String sql) {
+        int count = 0;
+        char quote = 0;
+        boolean comment = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (comment) {
+                if (c == '*' && i + 1 < sql.length() && sql.charAt(i + 1) == '/') {
+                    comment = false;
+                    i++;
+                }
+            } else if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '/' && i + 1 < sql.length() && sql.charAt(i + 1) == '*') {
+                comment = true;
+                i++;
+            } else if (c == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 実行中のスレッドで直近に準備したSQL
+     * Hibernateはスレッドを跨いでセッションを使用しないため、準備から実行までは同一のスレッドで行われる
+     */
+    private static class Execution {
+        //SQL文
+        String sql;
+        //SQLの計測値(記録先)
+        QueryStats stats;
+        //実行を開始した時刻(ナノ秒)
+        long startedAt;
+    }
+
+    private static final ThreadLocal<Execution> CURRENT = ThreadLocal.withInitial(Execution::new);
+
+    /**
+     * Hibernateが準備するSQLの種類を決め、StatementCounterの範囲に記録する(ProfilingStatementInspectorから呼び出す)
+     * @param sql SQL文
+     */
+    static void prepared(String sql) {
+        String name = nameOf(sql);
+        StatementCounter.record(name);
+        Execution e = CURRENT.get();
+        e.sql = sql;
+        e.stats = stats(name);
+    }
+
+    //SQLの実行を開始する(ProfilingSessionListenerから呼び出す)
+    static void executionStarted() {
+        CURRENT.get().startedAt = System.nanoTime();
+    }
+
+    /**
+     * SQLの実行が終了した時点で、直近に準備したSQLの処理時間を記録する(ProfilingSessionListenerから呼び出す)
+     * 処理時間が閾値を超えた場合は、バインドパラメータの数(値は出力しない)とSQL文をログに出力する
+     */
+    static void executionEnded() {
+        Execution e = CURRENT.get();
+        QueryStats q = e.stats;
+        if (q == null || e.startedAt == 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - e.startedAt;
+        e.startedAt = 0;
+        q.latency.recordNanos(elapsed);
+        if (elapsed >= slowQueryNanos) {
+            q.slow.increment();
+            //Hibernateが準備するSQL文はプレースホルダのみで値を含まない
+            SLOW_LOG.warning("slow query: " + q.name + " " + elapsed / 1_000_000 + " ms"
+                    + " params=" + paramCount(e.sql)
+                    + " sql=" + truncate(e.sql.replaceAll("\\s+", " ")));
+        }
+    }
+
+    /**
+     * 接続をラップし、SQLの実行で発生した例外の回数と取得・更新した件数を記録する
+     * (profiler.jdbc_wrapperをtrueにした場合のみProfilingConnectionProviderが使用する)
+     * 中継するのはStatementの実行(execute*)と結果セットのnextのみで、その他の呼び出しはそのまま委譲する
+     * @param conn プールから取得した接続
+     * @return ラップした接続
+     */
+    public static Connection wrap(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(
+                SqlProfiler.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new ConnectionHandler(conn));
+    }
+
+    /**
+     * 接続のメソッド呼び出しを中継し、作成したStatementをラップする
+     */
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(target, method, args);
+            if (result instanceof Statement && method.getReturnType().isInterface()) {
+                //prepareStatement・prepareCallは第1引数がSQL文 createStatementは実行時にSQL文を受け取る
+                String sql = method.getName().startsWith("prepare") && args != null && args[0] instanceof String
+                        ? (String) args[0]
+                        : null;
+                return Proxy.newProxyInstance(
+                        SqlProfiler.class.getClassLoader(),
+                        new Class<?>[] { method.getReturnType() },
+                        new StatementHandler((Statement) result, (Connection) proxy, sql));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Statementのメソッド呼び出しを中継し、例外の回数と件数を記録する
+     */
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final Connection connection;
+
+        //準備したSQLの計測値(createStatementの場合は実行時に決める)
+        private final QueryStats prepared;
+
+        //直近に実行したSQLの計測値(結果の件数の記録先)
+        private QueryStats current;
+
+        StatementHandler(Statement target, Connection connection, String sql) {
+            this.target = target;
+            this.connection = connection;
+            this.prepared = sql == null ? null : stats(nameOf(sql));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.startsWith("execute")) {
+                return execute(proxy, method, args);
+            }
+            //ラップした接続を返却する(ラップ前の接続で作成したStatementは記録されないため)
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+
+            Object result = call(target, method, args);
+            //getGeneratedKeysの結果は採番した値のため件数に含めない
+            if (result instanceof ResultSet && current != null && name.equals("getResultSet")) {
+                return wrapResultSet((ResultSet) result, (Statement) proxy, current);
+            }
+            return result;
+        }
+
+        /**
+         * SQLを実行し、例外の回数と件数を記録する
+         */
+        private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            QueryStats q = args != null && args.length > 0 && args[0] instanceof String
+                    ? stats(nameOf((String) args[0]))
+                    : prepared;
+            if (q == null) {
+                return call(target, method, args);
+            }
+            current = q;
+
+            Object result;
+            try {
+                result = call(target, method, args);
+            } catch (Throwable e) {
+                q.errors.increment();
+                throw e;
+            }
+
+            if (result instanceof ResultSet) {
+                return wrapResultSet((ResultSet) result, (Statement) proxy, q);
+            }
+            if (result instanceof Integer || result instanceof Long) {
+                q.rows.add(((Number) result).longValue());
+            } else if (result instanceof int[]) {
+                for (int n : (int[]) result) {
+                    if (n > 0) {
+                        q.rows.add(n);
+                    }
+                }
+            } else if (result instanceof long[]) {
+                for (long n : (long[]) result) {
+                    if (n > 0) {
+                        q.rows.add(n);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 結果セットをラップし、取得した件数を記録する
+     */
+    private static ResultSet wrapResultSet(ResultSet rs, Statement statement, QueryStats q) {
+        return (ResultSet) Proxy.newProxyInstance(
+                SqlProfiler.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class },
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("next")) {
+                        boolean next = rs.next();
+                        if (next) {
+                            q.rows.increment();
+                        }
+                        return next;
+                    }
+                    if (name.equals("getStatement")) {
+                        return statement;
+                    }
+                    return call(rs, method, args);
+                });
+    }
+
+    /**
+     * ラップ対象のメソッドを呼び出す(発生した例外はそのまま送出する)
+     */
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import constants.MetricsConst;
+
+/**
+ * リクエスト等の処理範囲毎に、実行したSQLの件数を数えるクラス
+ * HibernateがSQLを準備する度に(SqlProfiler)、実行中のスレッドで開いている範囲に記録する
+ * FrontControllerはリクエスト毎に範囲を開き、件数が上限(statement.budget)を超えた場合はログに出力する
+ * (2次キャッシュ・クエリキャッシュで解決しDBに問い合わせなかったものは数えない)
+ *
+ * テストから件数を検証する場合は次のように使用する
+ * <pre>
+ * try (StatementCounter.Scope scope = StatementCounter.open("Student/index")) {
+ *     (処理を実行)
+ *     scope.assertAtMost(2);
+ * }
+ * </pre>
+ * statement.headerをtrueにした場合はリクエスト毎の件数をレスポンスヘッダ(X-Statement-Count)に出力する
+ * (主要な画面の件数はbenchmarks.StatementBudgetCheckで検証する)
+ */
+public class StatementCounter {
+
+    private static final Logger LOG = Logger.getLogger(StatementCounter.class.getName());
+
+    //実行中のスレッドで開いている範囲
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    //件数が上限を超えた範囲の件数
+    private static final LongAdder OVER_BUDGET = new LongAdder();
+
+    /**
+     * SQLの件数を数える範囲
+     * 範囲の中で別の範囲を開いた場合、内側で実行したSQLは外側の範囲にも記録する
+     */
+    public static class Scope implements AutoCloseable {
+        private final String label;
+        private final int budget;
+        private final Scope parent;
+        private int count;
+
+        //SQLの種類と実行回数の対応表(実行順)
+        private final Map<String, Integer> statements = new LinkedHashMap<>();
+
+        private boolean closed;
+
+        Scope(String label, int budget, Scope parent) {
+            this.label = label;
+            this.budget = budget;
+            this.parent = parent;
+        }
+
+        //範囲の名前(例: Student/index)
+        public String getLabel() {
+            return label;
+        }
+
+        //件数の上限
+        public int getBudget() {
+            return budget;
+        }
+
+        //実行したSQLの件数
+        public int getCount() {
+            return count;
+        }
+
+        //SQLの種類と実行回数の対応表(実行順)
+        public Map<String, Integer> getStatements() {
+            return Collections.unmodifiableMap(statements);
+        }
+
+        //件数が上限を超えたかどうか
+        public boolean isOverBudget() {
+            return count > budget;
+        }
+
+        /**
+         * 実行したSQLの件数が指定した件数以下であることを検証する
+         * @param max 件数の上限
+         * @throws AssertionError 件数が上限を超えた場合(実行したSQLの一覧を含む)
+         */
+        public void assertAtMost(int max) {
+            if (count > max) {
+                throw new AssertionError(label + ": expected at most " + max + " statements but was " + count
+                        + " " + summary());
+            }
+        }
+
+        /**
+         * 範囲を閉じる 件数が上限を超えた場合はログに出力する
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            //内側の範囲を閉じ忘れていても、この範囲の外側に戻す
+            CURRENT.set(parent);
+
+            if (isOverBudget()) {
+                OVER_BUDGET.increment();
+                LOG.warning("statement budget exceeded: " + label + " " + count + " statements (budget " + budget
+                        + ") " + summary());
+            }
+        }
+
+        private void record(String name) {
+            count++;
+            if (statements.containsKey(name) || statements.size() < MetricsConst.STATEMENT_COUNTER_MAX_NAMES) {
+                statements.merge(name, 1, Integer::sum);
+            }
+        }
+
+        /**
+         * 実行したSQLの一覧を文字列にする
+         * 同じSQLを繰り返し実行しているもの(N+1問題の疑い)には印を付ける
+         */
+        private String summary() {
+            StringBuilder sb = new StringBuilder("[");
+            for (Map.Entry<String, Integer> e : statements.entrySet()) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append(e.getKey()).append(" x").append(e.getValue());
+                if (e.getValue() >= MetricsConst.STATEMENT_REPEAT_THRESHOLD) {
+                    sb.append(" (possible N+1)");
+                }
+            }
+            return sb.append("]").toString();
+        }
+    }
+
+    /**
+     * 件数の上限を指定して範囲を開く
+     * @param label 範囲の名前
+     * @param budget 件数の上限
+     * @return 開いた範囲(閉じるまで実行中のスレッドのSQLを記録する)
+     */
+    public static Scope open(String label, int budget) {
+        Scope scope = new Scope(label, budget, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * 件数の上限を指定せずに範囲を開く(テストでassertAtMostにより検証する場合等)
+     * @param label 範囲の名前
+     * @return 開いた範囲
+     */
+    public static Scope open(String label) {
+        return open(label, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 実行中のスレッドで開いている全ての範囲にSQLの実行を記録する(SqlProfilerから呼び出す)
+     * @param name SQLの種類
+     */
+    static void record(String name) {
+        for (Scope s = CURRENT.get(); s != null; s = s.parent) {
+            s.record(name);
+        }
+    }
+
+    //件数が上限を超えた範囲の件数
+    public static long getOverBudgetCount() {
+        return OVER_BUDGET.sum();
+    }
+}
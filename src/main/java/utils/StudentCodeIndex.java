@@ -0,0 +1,199 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import constants.JpaConst;
+
+/**
+ * 登録済みの学生番号を保持するブルームフィルタ
+ * 「登録されていない」と判定した番号は、ログインや重複チェックでDBへの問い合わせを省略する
+ * フィルタが反映するのはこのJVMで登録した番号と作成時にDBから読み込んだ番号のみのため、
+ * 他のノードやDBへの直接の登録は件数補正の度の再作成まで反映されない
+ * (重複チェックの誤判定は登録時に番号の一意制約で検出し、フィルタに追加する 最終的な判定は一意制約で行う)
+ * 番号の削除・変更前の番号は取り除けないため誤判定(登録されているかもしれない)が増えるが、再作成で解消する
+ * 読み込みが完了するまで、および最後の作成から件数補正の間隔を過ぎた場合(再作成の失敗等)は
+ * 全ての番号を「登録されているかもしれない」と判定する
+ */
+public class StudentCodeIndex {
+
+    /**
+     * ビット配列と登録件数をまとめたフィルタ本体
+     */
+    private static class Filter {
+        final AtomicLongArray bits;
+        final long bitCount;
+        final int hashCount;
+        final long capacity;
+        final AtomicLong inserted = new AtomicLong();
+
+        Filter(long capacity) {
+            //誤判定率がJpaConst.CODE_INDEX_FPPとなるビット数とハッシュ関数の数を求める
+            double ln2 = Math.log(2);
+            long m = (long) Math.ceil(-capacity * Math.log(JpaConst.CODE_INDEX_FPP) / (ln2 * ln2));
+            long words = Math.max(1, (m + 63) / 64);
+            this.bits = new AtomicLongArray((int) words);
+            this.bitCount = words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+            this.capacity = capacity;
+        }
+
+        void add(String code) {
+            long h = hash(code);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long cur;
+                while (((cur = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, cur, cur | mask)) {
+                    //他のスレッドと競合した場合は再試行する
+                }
+            }
+            inserted.incrementAndGet();
+        }
+
+        boolean mightContain(String code) {
+            long h = hash(code);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    //参照中のフィルタ 読み込み前はnull
+    private static volatile Filter current;
+
+    //参照中のフィルタの読み込みを開始した時刻(ナノ秒) この時点以降の他のノードでの登録は反映されていない
+    private static volatile long currentLoadedAt;
+
+    //作成中のフィルタの読み込みを開始した時刻(ナノ秒)
+    private static long pendingLoadedAt;
+
+    //作成中のフィルタ 作成中に登録された番号も反映するため、登録時はcurrentとpendingの両方に追加する
+    private static volatile Filter pending;
+
+    //「登録されていない」と判定しDBへの問い合わせを省略した件数
+    private static final LongAdder NEGATIVES = new LongAdder();
+
+    //「登録されているかもしれない」と判定した件数
+    private static final LongAdder POSITIVES = new LongAdder();
+
+    //「登録されていない」と判定したが、登録時に一意制約で重複が判明した件数(他のノードでの登録等)
+    private static final LongAdder STALE = new LongAdder();
+
+    //フィルタの作成を開始する(この後に登録された番号は作成中のフィルタにも追加される)
+    public static synchronized void beginLoad(long expectedCount) {
+        pending = new Filter(Math.max(JpaConst.CODE_INDEX_MIN_CAPACITY,
+                expectedCount * JpaConst.CODE_INDEX_GROWTH_FACTOR));
+        pendingLoadedAt = System.nanoTime();
+    }
+
+    //作成中のフィルタに登録済みの番号を追加する
+    public static void load(String code) {
+        Filter f = pending;
+        if (f != null && code != null) {
+            f.add(code);
+        }
+    }
+
+    //作成中のフィルタを参照中のフィルタと置き換える
+    public static synchronized void endLoad() {
+        if (pending != null) {
+            currentLoadedAt = pendingLoadedAt;
+            current = pending;
+            pending = null;
+        }
+    }
+
+    //作成を中止する(参照中のフィルタはそのまま使用する)
+    public static synchronized void abortLoad() {
+        pending = null;
+    }
+
+    //学生番号の登録を反映する(登録・番号の変更のコミット後に呼び出すこと)
+    public static void add(String code) {
+        if (code == null) {
+            return;
+        }
+        Filter f = current;
+        if (f != null) {
+            f.add(code);
+        }
+        Filter p = pending;
+        if (p != null) {
+            p.add(code);
+        }
+    }
+
+    //学生番号が登録されているかもしれないかどうか(false: 未登録 DBへの問い合わせを省略してよい)
+    public static boolean mightContain(String code) {
+        Filter f = current;
+        if (f == null || code == null || !isFresh() || f.mightContain(code)) {
+            POSITIVES.increment();
+            return true;
+        }
+        NEGATIVES.increment();
+        return false;
+    }
+
+    //「登録されていない」と判定したが登録時に重複が判明した番号を記録し、フィルタに追加する
+    public static void recordStale(String code) {
+        STALE.increment();
+        add(code);
+    }
+
+    //読み込みが完了しているかどうか
+    public static boolean isLoaded() {
+        return current != null;
+    }
+
+    //参照中のフィルタが件数補正の間隔以内に作成されたものかどうか
+    private static boolean isFresh() {
+        return System.nanoTime() - currentLoadedAt < JpaConst.CODE_INDEX_MAX_AGE_NANOS;
+    }
+
+    //フィルタに追加した番号の件数
+    public static long getInsertedCount() {
+        Filter f = current;
+        return f == null ? 0 : f.inserted.get();
+    }
+
+    //「登録されていない」と判定しDBへの問い合わせを省略した件数
+    public static long getNegativeCount() {
+        return NEGATIVES.sum();
+    }
+
+    //「登録されているかもしれない」と判定した件数
+    public static long getPositiveCount() {
+        return POSITIVES.sum();
+    }
+
+    //「登録されていない」と判定したが登録時に重複が判明した件数
+    public static long getStaleCount() {
+        return STALE.sum();
+    }
+
+    //学生番号の64ビットハッシュ値(FNV-1a)を求める
+    private static long hash(String code) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : code.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        //下位ビットの偏りをなくすため攪拌する
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return h;
+    }
+}
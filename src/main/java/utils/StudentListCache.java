@@ -0,0 +1,164 @@
+package utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import constants.CacheConst;
+
+/**
+ * 学生一覧画面の一覧部分(表とページ移動のリンク)の描画結果をメモリに保持するクラス
+ * ページ数・カーソル毎に保持し、件数と合計サイズの上限を超えた場合は最も長く参照されていないものから破棄する
+ * 学生の登録・更新・削除の度に世代を進め、それより前の世代で描画した結果は使用しない
+ * 他のノードでの更新は、表示の度にDBから取得する学生データの状態(更新日時の最大値と件数)の変化で検知して世代を進める
+ * 状態の変化で検知できない更新に備え、保持する時間にも上限を設ける
+ */
+public class StudentListCache {
+
+    /**
+     * 保持する描画結果と描画を始めた時点の世代
+     */
+    private static class Entry {
+        final String html;
+        final long generation;
+        final long createdAt;
+
+        Entry(String html, long generation, long createdAt) {
+            this.html = html;
+            this.generation = generation;
+            this.createdAt = createdAt;
+        }
+    }
+
+    //描画結果を参照順に保持する(アクセス順のLinkedHashMapのため、参照も含めてロックして操作する)
+    private static final LinkedHashMap<String, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+
+    //保持している描画結果の合計サイズ(文字数)
+    private static long totalChars = 0;
+
+    //世代 学生データが更新される度に加算する
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    //直近に確認した学生データの状態(更新日時の最大値と件数) 未確認の場合null
+    private static String version;
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+
+    //現在の世代(描画を始める前に取得し、putに渡すこと)
+    public static long generation() {
+        return GENERATION.get();
+    }
+
+    /**
+     * DBから取得した学生データの状態を反映する
+     * 直近に確認した状態と異なる場合は(他のノードを含め)学生データが更新されたとみなし、世代を進めて描画結果を全て破棄する
+     * @param currentVersion 学生データの状態(更新日時の最大値と件数)
+     * @return true: 状態が変わった false: 変わっていない(または初めての確認)
+     */
+    public static boolean sync(String currentVersion) {
+        synchronized (ENTRIES) {
+            if (currentVersion.equals(version)) {
+                return false;
+            }
+            boolean changed = version != null;
+            version = currentVersion;
+            if (changed) {
+                GENERATION.incrementAndGet();
+                ENTRIES.clear();
+                totalChars = 0;
+            }
+            return changed;
+        }
+    }
+
+    //現在の世代で描画した結果を取得する 保持していない場合null
+    public static String get(String key) {
+        long generation = GENERATION.get();
+        synchronized (ENTRIES) {
+            Entry e = ENTRIES.get(key);
+            if (e != null && e.generation == generation
+                    && System.nanoTime() - e.createdAt < CacheConst.STU_LIST_CACHE_TTL_NANOS) {
+                HITS.increment();
+                return e.html;
+            }
+            if (e != null) {
+                //古い世代または保持する時間を過ぎた描画結果は破棄する
+                remove(key);
+            }
+        }
+        MISSES.increment();
+        return null;
+    }
+
+    //描画結果を保持する 描画中に世代が進んだ場合(描画中に更新された場合)は保持しない
+    public static void put(String key, String html, long generation) {
+        if (html.length() > CacheConst.STU_LIST_CACHE_MAX_ENTRY_CHARS) {
+            return;
+        }
+        synchronized (ENTRIES) {
+            if (generation != GENERATION.get()) {
+                return;
+            }
+            remove(key);
+            ENTRIES.put(key, new Entry(html, generation, System.nanoTime()));
+            totalChars += html.length();
+
+            //上限を超えた分を最も長く参照されていないものから破棄する
+            Iterator<Map.Entry<String, Entry>> it = ENTRIES.entrySet().iterator();
+            while (it.hasNext()
+                    && (ENTRIES.size() > CacheConst.STU_LIST_CACHE_MAX_ENTRIES
+                            || totalChars > CacheConst.STU_LIST_CACHE_MAX_CHARS)) {
+                totalChars -= it.next().getValue().html.length();
+                it.remove();
+                EVICTIONS.increment();
+            }
+        }
+    }
+
+    //世代を進め、保持している描画結果を全て破棄する(学生データの登録・更新・削除の後に呼び出すこと)
+    public static void invalidate() {
+        synchronized (ENTRIES) {
+            GENERATION.incrementAndGet();
+            ENTRIES.clear();
+            totalChars = 0;
+        }
+    }
+
+    //ロックを取得した状態で呼び出すこと
+    private static void remove(String key) {
+        Entry old = ENTRIES.remove(key);
+        if (old != null) {
+            totalChars -= old.html.length();
+        }
+    }
+
+    public static long getHitCount() {
+        return HITS.sum();
+    }
+
+    public static long getMissCount() {
+        return MISSES.sum();
+    }
+
+    public static long getEvictionCount() {
+        return EVICTIONS.sum();
+    }
+
+    //保持している描画結果の件数
+    public static int size() {
+        synchronized (ENTRIES) {
+            return ENTRIES.size();
+        }
+    }
+
+    //保持している描画結果の合計サイズ(文字数)
+    public static long getTotalChars() {
+        synchronized (ENTRIES) {
+            return totalChars;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+import constants.SecurityConst;
+
+/**
+ * 学生毎の署名付きCookieのバージョンを一定時間メモリに保持するクラス
+ * リクエスト毎にDBへ問い合わせずに失効を確認するために使用する
+ * 自ノードでの失効は即座に、他のノードでの失効は保持時間内に反映される
+ */
+public class TokenVersionCache {
+
+    /**
+     * 保持するバージョンと取得した時刻
+     */
+    private static class Entry {
+        final Integer version;
+        final long loadedAt;
+
+        Entry(Integer version, long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    //学生のidとバージョンの対応表
+    private static final Map<Integer, Entry> VERSIONS = new ConcurrentHashMap<>();
+
+    //発行済みのCookieのバージョンが現在のバージョンと一致するかどうか
+    //loaderは保持していない場合に学生テーブルから現在のバージョンを取得する処理(削除済みの場合null)
+    public static boolean isCurrent(int id, int version, IntFunction<Integer> loader) {
+        long now = System.nanoTime();
+        Entry e = VERSIONS.get(id);
+        if (e == null || now - e.loadedAt >= SecurityConst.AUTH_VERSION_CACHE_NANOS) {
+            e = new Entry(loader.apply(id), now);
+            VERSIONS.put(id, e);
+        }
+
+        return e.version != null && e.version == version;
+    }
+
+    //学生のバージョンを破棄する(更新・削除・ログアウトの後に呼び出すこと)
+    public static void invalidate(int id) {
+        VERSIONS.remove(id);
+    }
+
+    //保持しているバージョンの件数
+    public static int size() {
+        return VERSIONS.size();
+    }
+}
@@ -0,0 +1,13 @@
+-- 学生テーブル
+CREATE TABLE students (
+    id INT NOT NULL AUTO_INCREMENT,
+    code VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    password VARCHAR(64) NOT NULL,
+    admin_flag INT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    delete_flag INT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_students_code UNIQUE (code)
+) ENGINE=InnoDB;
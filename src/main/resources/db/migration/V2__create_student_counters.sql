@@ -0,0 +1,18 @@
+-- 学生件数テーブル
+-- マイグレーション導入前に作成済みの場合(スキーマ自動生成で作成された等)もあるため、存在しない場合のみ作成する
+CREATE TABLE IF NOT EXISTS student_counters (
+    counter_name VARCHAR(16) NOT NULL,
+    counter_value BIGINT NOT NULL,
+    PRIMARY KEY (counter_name)
+) ENGINE=InnoDB;
+
+-- 件数が未作成(テーブルが空)の場合のみ、学生テーブルの実際の件数で初期化する
+INSERT INTO student_counters (counter_name, counter_value)
+    SELECT c.counter_name, c.counter_value FROM (
+        SELECT 'total' AS counter_name, COUNT(*) AS counter_value FROM students
+        UNION ALL
+        SELECT 'active', COUNT(*) FROM students WHERE delete_flag = 0
+        UNION ALL
+        SELECT 'deleted', COUNT(*) FROM students WHERE delete_flag = 1
+    ) c
+    WHERE NOT EXISTS (SELECT 1 FROM student_counters);
@@ -0,0 +1,6 @@
+-- ログイン(getByCode)・重複チェック: code = ? AND delete_flag = 0 を1回の索引参照で判定する
+-- パスワードはハッシュ値をアプリケーションで照合するため索引に含めない
+CREATE INDEX idx_students_login ON students (code, delete_flag);
+
+-- 削除済み件数(countDeleted)の集計
+CREATE INDEX idx_students_delete_flag ON students (delete_flag);
@@ -0,0 +1,2 @@
+-- パスワードをソルト付きPBKDF2形式(pbkdf2$反復回数$ソルト$ハッシュ値)で保存できるよう拡張する
+ALTER TABLE students MODIFY COLUMN password VARCHAR(128) NOT NULL;
@@ -0,0 +1,2 @@
+-- 署名付きCookieによる認証で、発行済みのCookieを失効させるためのバージョンを追加する
+ALTER TABLE students ADD COLUMN token_version INT NOT NULL DEFAULT 0;
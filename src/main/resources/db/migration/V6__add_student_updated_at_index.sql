@@ -0,0 +1,2 @@
+-- 一覧画面の条件付きGETで使用する更新日時の最大値(MAX(updated_at))を索引の末尾から1行で取得する
+CREATE INDEX idx_students_updated_at ON students (updated_at);
@@ -1,9 +1,7 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8"
-        pageEncoding="UTF-8"%>
+        pageEncoding="UTF-8" session="false"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
 
-<c:import url="../layout/app.jsp">
-        <c:param name="content">
-                <h2>お探しのページは見つかりませんでした。</h2>
-        </c:param>
-</c:import>
\ No newline at end of file
+<%@ include file="/WEB-INF/views/layout/header.jspf" %>
+<h2>お探しのページは見つかりませんでした。</h2>
+<%@ include file="/WEB-INF/views/layout/footer.jspf" %>
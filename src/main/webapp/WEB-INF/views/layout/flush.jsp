@@ -0,0 +1,2 @@
+<%@ page language="java" pageEncoding="UTF-8" trimDirectiveWhitespaces="true" session="false"%>
+<%-- 出力なし 呼び出し側の<jsp:include flush="true">で、ここまでの本文を先に送信するためだけに使用する --%>
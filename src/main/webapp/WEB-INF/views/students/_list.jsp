@@ -0,0 +1,62 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" session="false"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ page import="constants.AttributeConst" %>
+<%@ page import="constants.ForwardConst" %>
+<%-- 学生一覧画面の一覧部分 描画結果は全ての利用者で共有するため、ログイン中の学生やセッションに依存する内容を含めないこと --%>
+
+<c:set var="actStu" value="${ForwardConst.ACT_STU.getValue()}" />
+<c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+
+<table id="student_list">
+    <tbody>
+        <tr>
+            <th>ID</th>
+            <th>氏名</th>
+            <th>操作</th>
+        </tr>
+        <c:forEach var="student" items="${students}" varStatus="status">
+            <tr class="row${status.count % 2}">
+                <td><c:out value="${student.code}" /></td>
+                <td><c:out value="${student.name}" /></td>
+                <td>
+                    <c:choose>
+                        <c:when test="${student.deleteFlag == AttributeConst.DEL_FLAG_TRUE.getIntegerValue()}">
+                            （削除済み）
+                        </c:when>
+                        <c:otherwise>
+                            <a href="<c:url value='?action=${actStu}&command=${commShow}&id=${student.id}' />">詳細を見る</a>
+                        </c:otherwise>
+                    </c:choose>
+                </td>
+            </tr>
+        </c:forEach>
+    </tbody>
+</table>
+
+<div id="pagination">
+    （全 ${students_count} 件）<br />
+    <c:choose>
+        <c:when test="${page != null}">
+            <c:forEach var="i" begin="1" end="${((students_count - 1) / maxRow) + 1}" step="1">
+                <c:choose>
+                    <c:when test="${i == page}">
+                        <c:out value="${i}" />&nbsp;
+                    </c:when>
+                    <c:otherwise>
+                        <a href="<c:url value='?action=${actStu}&command=${commIdx}&page=${i}' />"><c:out value="${i}" /></a>&nbsp;
+                    </c:otherwise>
+                </c:choose>
+            </c:forEach>
+        </c:when>
+        <c:otherwise>
+            <c:if test="${prevCursor != null}">
+                <a href="<c:url value='?action=${actStu}&command=${commIdx}' />">最初へ</a>&nbsp;
+                <a href="<c:url value='?action=${actStu}&command=${commIdx}&cursor=${prevCursor}' />">&lt; 前へ</a>&nbsp;
+            </c:if>
+            <c:if test="${nextCursor != null}">
+                <a href="<c:url value='?action=${actStu}&command=${commIdx}&cursor=${nextCursor}' />">次へ &gt;</a>&nbsp;
+            </c:if>
+        </c:otherwise>
+    </c:choose>
+</div>
@@ -1,4 +1,4 @@
-<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" session="false"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
 <%@ page import="constants.AttributeConst" %>
 <%@ page import="constants.ForwardConst" %>
@@ -8,34 +8,32 @@
 <c:set var="commUpd" value="${ForwardConst.CMD_UPDATE.getValue()}" />
 <c:set var="commDel" value="${ForwardConst.CMD_DESTROY.getValue()}" />
 
-<c:import url="/WEB-INF/views/layout/app.jsp">
-    <c:param name="content">
+<%@ include file="/WEB-INF/views/layout/header.jspf" %>
 
-        <h2>id : ${student.id} の従業員情報 編集ページ</h2>
-        <p>（パスワードは変更する場合のみ入力してください）</p>
-        <form method="POST"
-            action="<c:url value='?action=${action}&command=${commUpd}' />">
-            <c:import url="_form.jsp" />
-        </form>
+<h2>id : ${student.id} の従業員情報 編集ページ</h2>
+<p>（パスワードは変更する場合のみ入力してください）</p>
+<form method="POST"
+    action="<c:url value='?action=${action}&command=${commUpd}' />">
+    <jsp:include page="_form.jsp" />
+</form>
 
-        <p>
-            <a href="#" onclick="confirmDestroy();">この従業員情報を削除する</a>
-        </p>
-        <form method="POST"
-            action="<c:url value='?action=${action}&command=${commDel}' />">
-            <input type="hidden" name="${AttributeConst.STU_ID.getValue()}" value="${student.id}" />
-            <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
-        </form>
-        <script>
-            function confirmDestroy() {
-                if (confirm("本当に削除してよろしいですか？")) {
-                    document.forms[1].submit();
-                }
-            }
-        </script>
+<p>
+    <a href="#" onclick="confirmDestroy();">この従業員情報を削除する</a>
+</p>
+<form method="POST"
+    action="<c:url value='?action=${action}&command=${commDel}' />">
+    <input type="hidden" name="${AttributeConst.STU_ID.getValue()}" value="${student.id}" />
+    <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
+</form>
+<script>
+    function confirmDestroy() {
+        if (confirm("本当に削除してよろしいですか？")) {
+            document.forms[1].submit();
+        }
+    }
+</script>
 
-        <p>
-            <a href="<c:url value='?action=${action}&command=${commIdx}' />">一覧に戻る</a>
-        </p>
-    </c:param>
-</c:import>
+<p>
+    <a href="<c:url value='?action=${action}&command=${commIdx}' />">一覧に戻る</a>
+</p>
+<%@ include file="/WEB-INF/views/layout/footer.jspf" %>
@@ -0,0 +1,51 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" session="false"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ page import="constants.AttributeConst" %>
+<%@ page import="constants.ForwardConst" %>
+
+<c:set var="action" value="${ForwardConst.ACT_STU.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commImp" value="${ForwardConst.CMD_IMPORT.getValue()}" />
+
+<%@ include file="/WEB-INF/views/layout/header.jspf" %>
+<c:if test="${flush != null}">
+    <div id="flush_success">
+        <c:out value="${flush}"></c:out>
+    </div>
+</c:if>
+<c:if test="${errors != null}">
+    <div id="flush_error">
+        <c:forEach var="error" items="${errors}">
+            ・<c:out value="${error}" /><br />
+        </c:forEach>
+    </div>
+</c:if>
+<h2>学生　一括登録ページ</h2>
+
+<c:if test="${importResult != null}">
+    <p>
+        読込件数: ${importResult.rowCount} 件 / 登録件数: ${importResult.importedCount} 件 / エラー件数: ${importResult.errorCount} 件
+    </p>
+    <c:if test="${importResult.errorCount > 0}">
+        <div id="flush_error">
+            <c:forEach var="error" items="${importResult.errors}">
+                ・<c:out value="${error}" /><br />
+            </c:forEach>
+            <c:if test="${importResult.errorCount > importResult.errors.size()}">
+                ほか ${importResult.errorCount - importResult.errors.size()} 件
+            </c:if>
+        </div>
+    </c:if>
+</c:if>
+
+<p>CSVファイル(UTF-8)の形式: 番号,氏名,パスワード,権限(0:一般 1:管理者)</p>
+<form method="POST" enctype="multipart/form-data" action="<c:url value='?action=${action}&command=${commImp}' />">
+    <label for="${AttributeConst.STU_IMPORT_FILE.getValue()}">CSVファイル</label><br />
+    <input type="file" name="${AttributeConst.STU_IMPORT_FILE.getValue()}" accept=".csv,text/csv" />
+    <br /><br />
+    <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
+    <button type="submit">取込</button>
+</form>
+
+<p><a href="<c:url value='?action=${action}&command=${commIdx}' />">一覧に戻る</a></p>
+<%@ include file="/WEB-INF/views/layout/footer.jspf" %>
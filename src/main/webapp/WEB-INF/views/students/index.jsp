@@ -1,61 +1,29 @@
-<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" session="false"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
 <%@ page import="constants.AttributeConst" %>
 <%@ page import="constants.ForwardConst" %>
 
 <c:set var="actStu" value="${ForwardConst.ACT_STU.getValue()}" />
-<c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
 <c:set var="commNew" value="${ForwardConst.CMD_NEW.getValue()}" />
-<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commImp" value="${ForwardConst.CMD_IMPORT_NEW.getValue()}" />
+<c:set var="commExp" value="${ForwardConst.CMD_EXPORT.getValue()}" />
 
-<c:import url="../layout/app.jsp">
-    <c:param name="content">
-        <c:if test="${flush != null}">
-            <div id="flush_success">
-                <c:out value="${flush}"></c:out>
-            </div>
-        </c:if>
-        <h2>学生　一覧</h2>
-        <table id="student_list">
-            <tbody>
-                <tr>
-                    <th>ID</th>
-                    <th>氏名</th>
-                    <th>操作</th>
-                </tr>
-                <c:forEach var="student" items="${students}" varStatus="status">
-                    <tr class="row${status.count % 2}">
-                        <td><c:out value="${student.code}" /></td>
-                        <td><c:out value="${student.name}" /></td>
-                        <td>
-                            <c:choose>
-                                <c:when test="${student.deleteFlag == AttributeConst.DEL_FLAG_TRUE.getIntegerValue()}">
-                                    （削除済み）
-                                </c:when>
-                                <c:otherwise>
-                                    <a href="<c:url value='?action=${actStu}&command=${commShow}&id=${student.id}' />">詳細を見る</a>
-                                </c:otherwise>
-                            </c:choose>
-                        </td>
-                    </tr>
-                </c:forEach>
-            </tbody>
-        </table>
-
-        <div id="pagination">
-            （全 ${students_count} 件）<br />
-            <c:forEach var="i" begin="1" end="${((students_count - 1) / maxRow) + 1}" step="1">
-                <c:choose>
-                    <c:when test="${i == page}">
-                        <c:out value="${i}" />&nbsp;
-                    </c:when>
-                    <c:otherwise>
-                        <a href="<c:url value='?action=${actStu}&command=${commIdx}&page=${i}' />"><c:out value="${i}" /></a>&nbsp;
-                    </c:otherwise>
-                </c:choose>
-            </c:forEach>
-        </div>
-        <p><a href="<c:url value='?action=${actStu}&command=${commNew}' />">新規学生の登録</a></p>
-
-    </c:param>
-</c:import>
+<%-- 一覧部分は描画済みのため、head以降でレスポンスの状態を変えることはない headまでを先に送信する --%>
+<c:set var="earlyFlush" value="${true}" />
+<%@ include file="/WEB-INF/views/layout/header.jspf" %>
+<c:if test="${flush != null}">
+    <div id="flush_success">
+        <c:out value="${flush}"></c:out>
+    </div>
+</c:if>
+<h2>学生　一覧</h2>
+<%-- 一覧部分はStudentActionが描画し、描画結果をキャッシュしたものを出力する --%>
+${studentList}
+<p><a href="<c:url value='?action=${actStu}&command=${commNew}' />">新規学生の登録</a></p>
+<p><a href="<c:url value='?action=${actStu}&command=${commImp}' />">CSVファイルから一括登録</a></p>
+<p>
+    全件ダウンロード:
+    <a href="<c:url value='?action=${actStu}&command=${commExp}&format=${AttributeConst.EXP_FORMAT_CSV.getValue()}' />">CSV</a>&nbsp;
+    <a href="<c:url value='?action=${actStu}&command=${commExp}&format=${AttributeConst.EXP_FORMAT_JSONL.getValue()}' />">JSON Lines</a>
+</p>
+<%@ include file="/WEB-INF/views/layout/footer.jspf" %>
@@ -1,4 +1,4 @@
-<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" session="false"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
 <%@ page import="constants.ForwardConst" %>
 
@@ -6,14 +6,12 @@
 <c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
 <c:set var="commCrt" value="${ForwardConst.CMD_CREATE.getValue()}" />
 
-<c:import url="../layout/app.jsp">
-    <c:param name="content">
-        <h2>学生　新規登録ページ</h2>
+<%@ include file="/WEB-INF/views/layout/header.jspf" %>
+<h2>学生　新規登録ページ</h2>
 
-        <form method="POST" action="<c:url value='?action=${action}&command=${commCrt}' />">
-            <c:import url="_form.jsp" />
-        </form>
+<form method="POST" action="<c:url value='?action=${action}&command=${commCrt}' />">
+    <jsp:include page="_form.jsp" />
+</form>
 
-        <p><a href="<c:url value='?action=${action}&command=${commIdx}' />">一覧に戻る</a></p>
-    </c:param>
-</c:import>
\ No newline at end of file
+<p><a href="<c:url value='?action=${action}&command=${commIdx}' />">一覧に戻る</a></p>
+<%@ include file="/WEB-INF/views/layout/footer.jspf" %>
@@ -1,4 +1,4 @@
-<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" session="false"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
 <%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt"%>
 <%@ page import="constants.ForwardConst" %>
@@ -8,47 +8,45 @@
 <c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
 <c:set var="commEdit" value="${ForwardConst.CMD_EDIT.getValue()}" />
 
-<c:import url="/WEB-INF/views/layout/app.jsp">
-    <c:param name="content">
+<%@ include file="/WEB-INF/views/layout/header.jspf" %>
 
-        <h2>id : ${student.id} の従業員情報 詳細ページ</h2>
+<h2>id : ${student.id} の従業員情報 詳細ページ</h2>
 
-        <table>
-            <tbody>
-                <tr>
-                    <th>番号</th>
-                    <td><c:out value="${student.code}" /></td>
-                </tr>
-                <tr>
-                    <th>氏名</th>
-                    <td><c:out value="${student.name}" /></td>
-                </tr>
-                <tr>
-                    <th>権限</th>
-                    <td><c:choose>
-                            <c:when test="${student.adminFlag == AttributeConst.ROLE_ADMIN.getIntegerValue()}">管理者</c:when>
-                            <c:otherwise>一般</c:otherwise>
-                        </c:choose></td>
-                </tr>
-                <tr>
-                    <th>登録日時</th>
-                    <fmt:parseDate value="${student.createdAt}" pattern="yyyy-MM-dd'T'HH:mm:ss" var="createDay" type="date" />
-                    <td><fmt:formatDate value="${createDay}" pattern="yyyy-MM-dd HH:mm:ss" /></td>
-                </tr>
-                <tr>
-                    <th>更新日時</th>
-                    <fmt:parseDate value="${student.updatedAt}" pattern="yyyy-MM-dd'T'HH:mm:ss" var="updateDay" type="date" />
-                    <td><fmt:formatDate value="${updateDay}" pattern="yyyy-MM-dd HH:mm:ss" /></td>
-                </tr>
-            </tbody>
-        </table>
+<table>
+    <tbody>
+        <tr>
+            <th>番号</th>
+            <td><c:out value="${student.code}" /></td>
+        </tr>
+        <tr>
+            <th>氏名</th>
+            <td><c:out value="${student.name}" /></td>
+        </tr>
+        <tr>
+            <th>権限</th>
+            <td><c:choose>
+                    <c:when test="${student.adminFlag == AttributeConst.ROLE_ADMIN.getIntegerValue()}">管理者</c:when>
+                    <c:otherwise>一般</c:otherwise>
+                </c:choose></td>
+        </tr>
+        <tr>
+            <th>登録日時</th>
+            <fmt:parseDate value="${student.createdAt}" pattern="yyyy-MM-dd'T'HH:mm:ss" var="createDay" type="date" />
+            <td><fmt:formatDate value="${createDay}" pattern="yyyy-MM-dd HH:mm:ss" /></td>
+        </tr>
+        <tr>
+            <th>更新日時</th>
+            <fmt:parseDate value="${student.updatedAt}" pattern="yyyy-MM-dd'T'HH:mm:ss" var="updateDay" type="date" />
+            <td><fmt:formatDate value="${updateDay}" pattern="yyyy-MM-dd HH:mm:ss" /></td>
+        </tr>
+    </tbody>
+</table>
 
-        <p>
-            <a href="<c:url value='?action=${actStu}&command=${commEdit}&id=${student.id}' />">この情報を編集する</a>
-        </p>
+<p>
+    <a href="<c:url value='?action=${actStu}&command=${commEdit}&id=${student.id}' />">この情報を編集する</a>
+</p>
 
-        <p>
-            <a href="<c:url value='?action=${actStu}&command=${commIdx}' />">一覧に戻る</a>
-        </p>
-    </c:param>
-</c:import>
\ No newline at end of file
+<p>
+    <a href="<c:url value='?action=${actStu}&command=${commIdx}' />">一覧に戻る</a>
+</p>
+<%@ include file="/WEB-INF/views/layout/footer.jspf" %>
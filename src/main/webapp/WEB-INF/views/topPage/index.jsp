@@ -1,15 +1,14 @@
-<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" session="false"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
 <%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
 
-<c:import url="../layout/app.jsp">
-    <c:param name="content">
-        <c:if test="${flush != null}">
-            <div id="flush_success">
-                <c:out value="${flush}"></c:out>
-            </div>
-        </c:if>
-        <h2>時間割管理システムへようこそ</h2>
-       
-    </c:param>
-</c:import>
\ No newline at end of file
+<%-- 本文は表示のみのため、head以降でレスポンスの状態を変えることはない headまでを先に送信する --%>
+<c:set var="earlyFlush" value="${true}" />
+<%@ include file="/WEB-INF/views/layout/header.jspf" %>
+<c:if test="${flush != null}">
+    <div id="flush_success">
+        <c:out value="${flush}"></c:out>
+    </div>
+</c:if>
+<h2>時間割管理システムへようこそ</h2>
+<%@ include file="/WEB-INF/views/layout/footer.jspf" %>